@@ -0,0 +1,180 @@
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Dictionary words of up to MAX_LENGTH letters grouped by their sorted
+ * letters, for pulling every word a rack can spell without walking a graph.
+ *
+ * Both signatures and words are packed into a long, five bits per letter
+ * (1-26, 0 is padding) with the first letter in the highest bits, so a
+ * numeric comparison is an alphabetical one and all signatures starting
+ * with a given prefix form one contiguous range of keys.
+ */
+public final class AnagramIndex {
+    /** Seven rack tiles plus one letter already on the board. */
+    static final int MAX_LENGTH = 8;
+    private static final int BITS = 5 * MAX_LENGTH;
+
+    private final long[] keys;    // sorted, distinct signatures
+    private final int[] starts;   // words of keys[i] are words[starts[i]..starts[i + 1])
+    private final long[] words;   // packed words, grouped by signature
+
+    private AnagramIndex(final long[] keys, final int[] starts, final long[] words) {
+        this.keys = keys;
+        this.starts = starts;
+        this.words = words;
+    }
+
+    /** Indexes every word of 2 to MAX_LENGTH letters in dictionary. */
+    static AnagramIndex build(final Dawg dictionary) {
+        final long[][] found = { new long[1 << 16] };
+        final int[] count = { 0 };
+        collect(dictionary, dictionary.root(), 0, 0L, found, count);
+        final long[] packed = Arrays.copyOf(found[0], count[0]);
+
+        final long[] signatures = new long[packed.length];
+        for (int i = 0; i < packed.length; i++) {
+            signatures[i] = signature(packed[i]);
+        }
+        final long[] sorted = signatures.clone();
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        final long[] keys = Arrays.copyOf(sorted, distinct);
+        // counting sort keeps each group in dictionary order
+        final int[] starts = new int[distinct + 1];
+        for (final long signature : signatures) {
+            starts[Arrays.binarySearch(keys, signature) + 1]++;
+        }
+        for (int i = 0; i < distinct; i++) {
+            starts[i + 1] += starts[i];
+        }
+        final int[] next = Arrays.copyOf(starts, distinct);
+        final long[] words = new long[packed.length];
+        for (int i = 0; i < packed.length; i++) {
+            words[next[Arrays.binarySearch(keys, signatures[i])]++] = packed[i];
+        }
+        return new AnagramIndex(keys, starts, words);
+    }
+
+    private static void collect(final Dawg dictionary, final int node, final int depth,
+                                final long prefix, final long[][] found, final int[] count) {
+        if (node == Dawg.LEAF || depth == MAX_LENGTH) {
+            return;
+        }
+        for (int e = node; e != Dawg.NO_EDGE; e = dictionary.nextEdge(e)) {
+            final long word = prefix | pack(dictionary.letter(e), depth);
+            if (depth > 0 && dictionary.isWordEnd(e)) {
+                if (count[0] == found[0].length) {
+                    found[0] = Arrays.copyOf(found[0], count[0] * 2);
+                }
+                found[0][count[0]++] = word;
+            }
+            collect(dictionary, dictionary.child(e), depth + 1, word, found, count);
+        }
+    }
+
+    private static long pack(final char letter, final int index) {
+        return (long) (Dawg.code(letter) + 1) << (BITS - 5 * (index + 1));
+    }
+
+    /** The packed word with its letters in alphabetical order. */
+    private static long signature(final long word) {
+        final int[] counts = new int[27];
+        for (int shift = BITS - 5; shift >= 0; shift -= 5) {
+            counts[(int) (word >>> shift) & 0x1f]++;
+        }
+        long signature = 0;
+        int index = 0;
+        for (int code = 1; code <= 26; code++) {
+            for (int k = 0; k < counts[code]; k++) {
+                signature |= (long) code << (BITS - 5 * ++index);
+            }
+        }
+        return signature;
+    }
+
+    static String unpack(final long word) {
+        final StringBuilder sb = new StringBuilder(MAX_LENGTH);
+        for (int shift = BITS - 5; shift >= 0; shift -= 5) {
+            final int code = (int) (word >>> shift) & 0x1f;
+            if (code == 0) {
+                break;
+            }
+            sb.append((char) ('A' + code - 1));
+        }
+        return sb.toString();
+    }
+
+    public int size() {
+        return words.length;
+    }
+
+    /**
+     * Reports every word that can be spelled from a sub-multiset of rack
+     * ('_' stands for any letter) plus boardLetter, which every reported
+     * word must use. Pass ' ' as boardLetter to use the rack alone.
+     */
+    public void query(final char[] rack, final char boardLetter, final Consumer<String> out) {
+        final int[] have = new int[27];
+        final int[] least = new int[26];
+        for (final char c : rack) {
+            if (c == '_') {
+                have[26]++;
+            } else if (isLetter(c)) {
+                have[Dawg.code(c)]++;
+            }
+        }
+        if (isLetter(boardLetter)) {
+            have[Dawg.code(boardLetter)]++;
+            least[Dawg.code(boardLetter)] = 1;
+        }
+        enumerate(0, 0L, 0, have[26], have, least, out);
+    }
+
+    private static boolean isLetter(final char c) {
+        return c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z';
+    }
+
+    private void enumerate(final int code, final long prefix, final int length, final int blanks,
+                           final int[] have, final int[] least, final Consumer<String> out) {
+        if (code == 26) {
+            final int i = length < 2 ? -1 : Arrays.binarySearch(keys, prefix);
+            if (i >= 0) {
+                for (int w = starts[i]; w < starts[i + 1]; w++) {
+                    out.accept(unpack(words[w]));
+                }
+            }
+            return;
+        }
+        long signature = prefix;
+        for (int k = 0; k < least[code]; k++) {
+            signature |= (long) (code + 1) << (BITS - 5 * (length + k + 1));
+        }
+        final int most = Math.min(have[code] + blanks, MAX_LENGTH - length);
+        for (int k = least[code]; k <= most; k++) {
+            if (k > 0 && !hasPrefix(signature, length + k)) {
+                break;  // no key starts this way, nor with more of this letter
+            }
+            enumerate(code + 1, signature, length + k, blanks - Math.max(0, k - have[code]),
+                      have, least, out);
+            if (length + k < MAX_LENGTH) {
+                signature |= (long) (code + 1) << (BITS - 5 * (length + k + 1));
+            }
+        }
+    }
+
+    /** True if some key starts with the first length letters of prefix. */
+    private boolean hasPrefix(final long prefix, final int length) {
+        final long last = prefix | ((1L << (BITS - 5 * length)) - 1);
+        int i = Arrays.binarySearch(keys, prefix);
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return i < keys.length && keys[i] <= last;
+    }
+}
@@ -0,0 +1,266 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A 15x15 board that keeps what the move generator needs to know about
+ * it up to date as tiles are added, rather than rescanning every square.
+ *
+ * rows[r] has bit c set if (r, c) holds a tile and columns[c] has bit r
+ * set for the same square. The anchors, empty squares next to a tile or
+ * the centre square of an empty board, are kept the same way, as are the
+ * words already on the board (runs of two or more tiles).
+ *
+ * place() and update() only redo the lines they touch, and stamp them
+ * with the board's version, so CrossChecks can ask which lines changed
+ * since it last looked instead of comparing every square. A square holds
+ * ' ' or a tile: a letter of either case or '_' for a blank. Anything else
+ * is refused, since the word graphs only have edges for letters.
+ */
+public class Board {
+    static final int SIZE = MoveGenerator.SIZE;
+    static final int CENTER = MoveGenerator.CENTER;
+    private static final int FULL_LINE = (1 << SIZE) - 1;
+
+    private final char[][] cells = new char[SIZE][SIZE];
+    private final short[] rows = new short[SIZE];
+    private final short[] columns = new short[SIZE];
+    private final short[] anchorRows = new short[SIZE];
+    private final short[] anchorColumns = new short[SIZE];
+    private final ArrayList<ScrabbleWord> words = new ArrayList<>();
+    private final List<ScrabbleWord> wordsView = Collections.unmodifiableList(words);
+    private int tileCount = 0;
+    // lines changed since the last refresh
+    private int dirtyRows = 0;
+    private int dirtyColumns = 0;
+    // bumped by every refresh that changes a line; the version each line last changed at
+    private long version = 0;
+    private final long[] rowVersions = new long[SIZE];
+    private final long[] columnVersions = new long[SIZE];
+
+    public Board() {
+        for (final char[] row : cells) {
+            Arrays.fill(row, ' ');
+        }
+        refresh();
+    }
+
+    /** @throws IllegalArgumentException if a square of board is no tile or ' ' */
+    public Board(final char[][] board) {
+        this();
+        update(board);
+    }
+
+    /** The squares themselves, row first; read only. */
+    public char[][] cells() {
+        return cells;
+    }
+
+    public char get(final int row, final int col) {
+        return cells[row][col];
+    }
+
+    public boolean isEmpty() {
+        return tileCount == 0;
+    }
+
+    /** Bit c is set if (row, c) holds a tile. */
+    public short row(final int row) {
+        return rows[row];
+    }
+
+    /** Bit r is set if (r, col) holds a tile. */
+    public short column(final int col) {
+        return columns[col];
+    }
+
+    /** Goes up whenever a square changes; see rowsChangedSince. */
+    public long version() {
+        return version;
+    }
+
+    /** Bit r is set if row r changed after this board was at version. */
+    public int rowsChangedSince(final long version) {
+        return changedSince(rowVersions, version);
+    }
+
+    /** Bit c is set if column c changed after this board was at version. */
+    public int columnsChangedSince(final long version) {
+        return changedSince(columnVersions, version);
+    }
+
+    private static int changedSince(final long[] lineVersions, final long version) {
+        int changed = 0;
+        for (int line = 0; line < SIZE; line++) {
+            if (lineVersions[line] > version) {
+                changed |= 1 << line;
+            }
+        }
+        return changed;
+    }
+
+    public boolean isAnchor(final int row, final int col) {
+        return (anchorRows[row] & 1 << col) != 0;
+    }
+
+    /** Bit c is set if (row, c) is an anchor. */
+    public short anchorsInRow(final int row) {
+        return anchorRows[row];
+    }
+
+    /** Bit r is set if (r, col) is an anchor. */
+    public short anchorsInColumn(final int col) {
+        return anchorColumns[col];
+    }
+
+    /** Every word on the board, horizontal ('h') and vertical ('v'). */
+    public List<ScrabbleWord> words() {
+        return wordsView;
+    }
+
+    /**
+     * Lays word on the board; squares already holding a tile keep it.
+     * @throws IllegalArgumentException if word has a letter that is no tile
+     */
+    public void place(final ScrabbleWord word) {
+        final String letters = word.getScrabbleWord();
+        final boolean isHorizontal = word.getOrientation() == 'h';
+        int row = word.getStartRow();
+        int col = word.getStartColumn();
+        for (int i = 0; i < letters.length(); i++) {
+            if (cells[row][col] == ' ') {
+                put(row, col, letters.charAt(i));
+            }
+            if (isHorizontal) {
+                col++;
+            } else {
+                row++;
+            }
+        }
+        refresh();
+    }
+
+    /**
+     * Makes this board equal to board, redoing only the lines that differ.
+     * @return true if anything changed
+     * @throws IllegalArgumentException if a square of board is no tile or ' '
+     */
+    public boolean update(final char[][] board) {
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                if (cells[row][col] != board[row][col]) {
+                    put(row, col, board[row][col]);
+                }
+            }
+        }
+        final boolean isChanged = dirtyRows != 0;
+        refresh();
+        return isChanged;
+    }
+
+    private void put(final int row, final int col, final char tile) {
+        if (!isTile(tile) && tile != ' ') {
+            throw new IllegalArgumentException("not a tile: '" + tile + "' at (" + row + ", "
+                                               + col + ")");
+        }
+        final boolean wasEmpty = cells[row][col] == ' ';
+        final boolean isEmpty = tile == ' ';
+        cells[row][col] = tile;
+        if (wasEmpty != isEmpty) {
+            rows[row] ^= 1 << col;
+            columns[col] ^= 1 << row;
+            tileCount += isEmpty ? -1 : 1;
+        }
+        dirtyRows |= 1 << row;
+        dirtyColumns |= 1 << col;
+    }
+
+    /** A letter of either case, or '_' for a blank. */
+    static boolean isTile(final char c) {
+        return c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c == '_';
+    }
+
+    private void refresh() {
+        // a square's anchor status depends on its own row and the two next to it
+        final int anchorDirty = (dirtyRows | dirtyRows << 1 | dirtyRows >> 1) & FULL_LINE;
+        for (int row = 0; row < SIZE; row++) {
+            if ((anchorDirty & 1 << row) != 0) {
+                setAnchors(row, anchors(row));
+            }
+        }
+        // the centre is an anchor only while the board is empty
+        if (tileCount == 0) {
+            setAnchors(CENTER, anchorRows[CENTER] | 1 << CENTER);
+        } else if ((anchorDirty & 1 << CENTER) == 0) {
+            setAnchors(CENTER, anchors(CENTER));
+        }
+        if (dirtyRows != 0 || dirtyColumns != 0) {
+            version++;
+            for (int line = 0; line < SIZE; line++) {
+                if ((dirtyRows & 1 << line) != 0) {
+                    rowVersions[line] = version;
+                }
+                if ((dirtyColumns & 1 << line) != 0) {
+                    columnVersions[line] = version;
+                }
+            }
+            words.removeIf(w -> w.getOrientation() == 'h'
+                           ? (dirtyRows & 1 << w.getStartRow()) != 0
+                           : (dirtyColumns & 1 << w.getStartColumn()) != 0);
+            for (int row = 0; row < SIZE; row++) {
+                if ((dirtyRows & 1 << row) != 0) {
+                    addWords(rows[row], row, true);
+                }
+            }
+            for (int col = 0; col < SIZE; col++) {
+                if ((dirtyColumns & 1 << col) != 0) {
+                    addWords(columns[col], col, false);
+                }
+            }
+        }
+        dirtyRows = 0;
+        dirtyColumns = 0;
+    }
+
+    private int anchors(final int row) {
+        final int here = rows[row];
+        final int above = row > 0 ? rows[row - 1] : 0;
+        final int below = row < SIZE - 1 ? rows[row + 1] : 0;
+        return (here << 1 | here >> 1 | above | below) & ~here & FULL_LINE;
+    }
+
+    private void setAnchors(final int row, final int anchors) {
+        final int changed = anchorRows[row] ^ anchors;
+        anchorRows[row] = (short) anchors;
+        for (int col = 0; col < SIZE; col++) {
+            if ((changed & 1 << col) != 0) {
+                anchorColumns[col] ^= 1 << row;
+            }
+        }
+    }
+
+    /** Adds the runs of two or more tiles in the line with occupancy mask. */
+    private void addWords(final int mask, final int line, final boolean isHorizontal) {
+        int pos = 0;
+        while (pos < SIZE) {
+            if ((mask & 1 << pos) == 0) {
+                pos++;
+                continue;
+            }
+            final int start = pos;
+            while (pos < SIZE && (mask & 1 << pos) != 0) {
+                pos++;
+            }
+            if (pos - start >= 2) {
+                final char[] letters = new char[pos - start];
+                for (int i = 0; i < letters.length; i++) {
+                    letters[i] = isHorizontal ? cells[line][start + i] : cells[start + i][line];
+                }
+                words.add(isHorizontal
+                          ? new ScrabbleWord(new String(letters), line, start, 'h')
+                          : new ScrabbleWord(new String(letters), start, line, 'v'));
+            }
+        }
+    }
+}
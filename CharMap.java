@@ -0,0 +1,110 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+
+/**
+ * A small map from char to value, kept as a sorted char[] of keys and a
+ * parallel array of values, for the children of a trie node.
+ *
+ * Lookups are a binary search over the keys; getOrInsert only creates a
+ * value when the key is missing, so walking an existing path allocates
+ * nothing. Values are iterated in key order.
+ */
+public class CharMap<V> implements Iterable<V> {
+    private static final char[] NO_KEYS = {};
+    private static final Object[] NO_VALUES = {};
+
+    private char[] keys = NO_KEYS;
+    private Object[] values = NO_VALUES;
+    private int size = 0;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Index of key, or -(insertion point) - 1 if it is missing. */
+    public int search(final char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    public char keyAt(final int index) {
+        return keys[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V valueAt(final int index) {
+        return (V) values[index];
+    }
+
+    /** The value of key, or null. */
+    public V get(final char key) {
+        final int i = search(key);
+        return i >= 0 ? valueAt(i) : null;
+    }
+
+    /**
+     * The value of key, first adding factory.apply(key) if key is missing.
+     * Pass a lambda that captures nothing so the call itself does not
+     * allocate.
+     */
+    public V getOrInsert(final char key, final IntFunction<? extends V> factory) {
+        final int i = search(key);
+        if (i >= 0) {
+            return valueAt(i);
+        }
+        final V value = factory.apply(key);
+        insertAt(-i - 1, key, value);
+        return value;
+    }
+
+    private void insertAt(final int index, final char key, final V value) {
+        if (size == keys.length) {
+            // most nodes have one or two children, grow gently
+            final int capacity = size < 4 ? size + 1 : size + (size >> 1);
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(values, index, values, index + 1, size - index);
+        keys[index] = key;
+        values[index] = value;
+        size++;
+    }
+
+    @Override
+    public Iterator<V> iterator() {
+        return new Iterator<V>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public V next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return valueAt(next++);
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("(");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(values[i]);
+        }
+        return sb.append(')').toString();
+    }
+}
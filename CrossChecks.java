@@ -0,0 +1,235 @@
+import java.util.Arrays;
+
+/**
+ * Cross-check masks for every square of the board.
+ *
+ * across[sq] is the set of letters (bit 0 = 'A') that may be placed on the
+ * empty square sq by a horizontal play, i.e. the letters that turn the
+ * tiles above and below sq into a word; down[sq] is the same for vertical
+ * plays. Squares with nothing on either side allow every letter, occupied
+ * squares allow none.
+ *
+ * acrossSums[sq] and downSums[sq] hold the face value of those touching
+ * tiles, the part of a cross word's score that is already on the board,
+ * or -1 where a tile on sq would form no cross word.
+ *
+ * Cross words of two or three letters, the usual ones beside a word, are
+ * looked up in ShortWords. Where the tiles are all on one side of the
+ * square and spell a longer word, the letters that fit are that word's
+ * hooks and come straight from Hooks; the dictionary is walked only for
+ * the other squares.
+ *
+ * The masks are kept between calls together with a copy of the board they
+ * describe, and only the columns (for across) and rows (for down) that
+ * changed are recomputed. update(Board) asks the board which lines those
+ * are when it is the board seen last; update(char[][]), and update(Board)
+ * for any other board, compare the new board with the copy.
+ */
+public class CrossChecks {
+    static final int SIZE = MoveGenerator.SIZE;
+    static final int ALL_LETTERS = MoveGenerator.ALL_LETTERS;
+
+    private final Dawg dictionary;
+    private final Hooks hooks;
+    private final ShortWords shortWords;
+    private final int[] across = new int[SIZE * SIZE];
+    private final int[] down = new int[SIZE * SIZE];
+    private final int[] acrossSums = new int[SIZE * SIZE];
+    private final int[] downSums = new int[SIZE * SIZE];
+    private final char[] cells = new char[SIZE * SIZE];
+    private final char[] pattern = new char[SIZE];
+    private Board seen;         // the board cells was last brought up to date with, or null
+    private long seenVersion;   // its version then
+
+    public CrossChecks(final Dawg dictionary, final Hooks hooks, final ShortWords shortWords) {
+        this.dictionary = dictionary;
+        this.hooks = hooks;
+        this.shortWords = shortWords;
+        Arrays.fill(cells, ' ');
+        Arrays.fill(across, ALL_LETTERS);
+        Arrays.fill(down, ALL_LETTERS);
+        Arrays.fill(acrossSums, -1);
+        Arrays.fill(downSums, -1);
+    }
+
+    /** Masks for horizontal plays, indexed by row * 15 + col. */
+    public int[] across() {
+        return across;
+    }
+
+    /** Masks for vertical plays, indexed by row * 15 + col. */
+    public int[] down() {
+        return down;
+    }
+
+    /** Cross word values for horizontal plays, indexed like across(). */
+    public int[] acrossSums() {
+        return acrossSums;
+    }
+
+    /** Cross word values for vertical plays, indexed like down(). */
+    public int[] downSums() {
+        return downSums;
+    }
+
+    /** Brings the masks up to date with board. */
+    public void update(final char[][] board) {
+        int changedRows = 0;
+        int changedCols = 0;
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                final char tile = board[row][col];
+                if (cells[row * SIZE + col] != tile) {
+                    cells[row * SIZE + col] = tile;
+                    changedRows |= 1 << row;
+                    changedCols |= 1 << col;
+                }
+            }
+        }
+        seen = null;
+        recompute(changedRows, changedCols);
+    }
+
+    /**
+     * Brings the masks up to date with state. If state is the board seen
+     * last, only the lines it changed since are copied and recomputed.
+     */
+    public void update(final Board state) {
+        if (state != seen) {
+            update(state.cells());
+        } else {
+            final int changedRows = state.rowsChangedSince(seenVersion);
+            final char[][] board = state.cells();
+            for (int row = 0; row < SIZE; row++) {
+                if ((changedRows & 1 << row) != 0) {
+                    System.arraycopy(board[row], 0, cells, row * SIZE, SIZE);
+                }
+            }
+            recompute(changedRows, state.columnsChangedSince(seenVersion));
+        }
+        seen = state;
+        seenVersion = state.version();
+    }
+
+    private void recompute(final int changedRows, final int changedCols) {
+        for (int col = 0; col < SIZE; col++) {
+            if ((changedCols & 1 << col) != 0) {
+                for (int row = 0; row < SIZE; row++) {
+                    across[row * SIZE + col] = compute(row, col, 1, 0);
+                    acrossSums[row * SIZE + col] = sum(row, col, 1, 0);
+                }
+            }
+        }
+        for (int row = 0; row < SIZE; row++) {
+            if ((changedRows & 1 << row) != 0) {
+                for (int col = 0; col < SIZE; col++) {
+                    down[row * SIZE + col] = compute(row, col, 0, 1);
+                    downSums[row * SIZE + col] = sum(row, col, 0, 1);
+                }
+            }
+        }
+    }
+
+    private char cell(final int row, final int col) {
+        return row < 0 || row >= SIZE || col < 0 || col >= SIZE ? ' ' : cells[row * SIZE + col];
+    }
+
+    /** Value of the tiles touching the empty (row, col) in direction (dr, dc), or -1. */
+    private int sum(final int row, final int col, final int dr, final int dc) {
+        if (cells[row * SIZE + col] != ' ') {
+            return -1;
+        }
+        int sum = 0;
+        boolean isTouching = false;
+        for (int r = row - dr, c = col - dc; cell(r, c) != ' '; r -= dr, c -= dc) {
+            sum += Scorer.letterValue(cell(r, c));
+            isTouching = true;
+        }
+        for (int r = row + dr, c = col + dc; cell(r, c) != ' '; r += dr, c += dc) {
+            sum += Scorer.letterValue(cell(r, c));
+            isTouching = true;
+        }
+        return isTouching ? sum : -1;
+    }
+
+    /**
+     * Letters that fit on (row, col) given the tiles touching it in
+     * direction (dr, dc) on both sides.
+     */
+    private int compute(final int row, final int col, final int dr, final int dc) {
+        if (cells[row * SIZE + col] != ' ') {
+            return 0;
+        }
+        int r = row - dr;
+        int c = col - dc;
+        while (cell(r, c) != ' ') {
+            r -= dr;
+            c -= dc;
+        }
+        int length = 0;
+        boolean hasBlank = false;
+        for (r += dr, c += dc; r != row || c != col; r += dr, c += dc) {
+            hasBlank |= (pattern[length++] = cell(r, c)) == '_';
+        }
+        final int hole = length++;
+        for (r += dr, c += dc; cell(r, c) != ' '; r += dr, c += dc) {
+            hasBlank |= (pattern[length++] = cell(r, c)) == '_';
+        }
+        if (length == 1) {
+            return ALL_LETTERS;
+        }
+        if (hasBlank) {
+            return matchEach(hole, length);
+        }
+        if (length <= 3) {
+            return shortWords.fits(pattern, hole, length);
+        }
+        if (hole == 0 || hole == length - 1) {
+            final int number = hole == 0
+                ? hooks.number(pattern, 1, length) : hooks.number(pattern, 0, hole);
+            if (number >= 0) {
+                return hole == 0 ? hooks.front(number) : hooks.back(number);
+            }
+        }
+        return matchSuffixes(hole, length);
+    }
+
+    /** Walks the prefix once, then tries the suffix after every child. */
+    private int matchSuffixes(final int hole, final int length) {
+        int node = dictionary.root();
+        for (int i = 0; i < hole && node != Dawg.LEAF; i++) {
+            final int e = dictionary.edge(node, pattern[i]);
+            if (e == Dawg.NO_EDGE) {
+                return 0;
+            }
+            node = dictionary.child(e);
+        }
+        if (node == Dawg.LEAF) {
+            return 0;
+        }
+        int allowed = 0;
+        for (int e = node; e != Dawg.NO_EDGE; e = dictionary.nextEdge(e)) {
+            int last = e;
+            for (int i = hole + 1; i < length && last != Dawg.NO_EDGE; i++) {
+                last = dictionary.edge(dictionary.child(last), pattern[i]);
+            }
+            if (last != Dawg.NO_EDGE && dictionary.isWordEnd(last)) {
+                allowed |= 1 << Dawg.code(dictionary.letter(e));
+            }
+        }
+        return allowed;
+    }
+
+    /** Slow path for blanks already on the board: one wildcard match per letter. */
+    private int matchEach(final int hole, final int length) {
+        final String before = new String(pattern, 0, hole);
+        final String after = new String(pattern, hole + 1, length - hole - 1);
+        int allowed = 0;
+        for (int code = 0; code < 26; code++) {
+            if (dictionary.matches(before + (char) ('A' + code) + after)) {
+                allowed |= 1 << code;
+            }
+        }
+        return allowed;
+    }
+}
@@ -0,0 +1,389 @@
+import java.io.FileNotFoundException;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * A minimized directed acyclic word graph (DAWG) stored as one flat run of
+ * ints, either an int[] built in memory or a mapped DictionaryImage.
+ *
+ * Every node is a run of consecutive edge records sorted by letter, the last
+ * one flagged with LAST_EDGE. An edge record packs
+ *
+ *   bits 0-4   letter code (0-25 for 'A'-'Z', 26 for SEPARATOR)
+ *   bit  5     the path ending with this edge spells a word
+ *   bit  6     last edge of its node
+ *   bits 7-31  index of the first edge of the child node (0 = no children)
+ *
+ * Index 0 is never a real edge, so a child of 0 means a leaf. Nodes are
+ * referred to by the index of their first edge.
+ */
+public final class Dawg {
+    /** Extra symbol sorting right after 'Z', used by the GADDAG. */
+    public static final char SEPARATOR = (char) ('Z' + 1);
+    /** Returned by edge lookups that fail. */
+    public static final int NO_EDGE = -1;
+    /** Child index of an edge that has no children. */
+    public static final int LEAF = 0;
+
+    static final int LETTER_MASK = 0x1f;
+    static final int WORD_END = 1 << 5;
+    static final int LAST_EDGE = 1 << 6;
+    static final int CHILD_SHIFT = 7;
+
+    private final IntBuffer edges;
+    private final int root;
+    private final int nodeCount;
+
+    Dawg(final IntBuffer edges, final int root, final int nodeCount) {
+        this.edges = edges;
+        this.root = root;
+        this.nodeCount = nodeCount;
+    }
+
+    /**
+     * Reads a word file (one word per line), folds it to upper case, drops
+     * anything that is not made of letters and builds the minimized graph.
+     */
+    public static Dawg load(final String wordFile) throws FileNotFoundException {
+        return build(readWords(wordFile));
+    }
+
+    /**
+     * @return the upper-cased words of wordFile that are made of letters
+     *         only, sorted and without duplicates
+     */
+    static WordList readWords(final String wordFile) throws FileNotFoundException {
+        return WordList.read(wordFile);
+    }
+
+    /** Builds the graph of words, streamed into the builder in order. */
+    static Dawg build(final WordList words) {
+        final Builder builder = new Builder();
+        words.forEach(builder::add);
+        return builder.build();
+    }
+
+    /**
+     * Like build(words), but the words of each first letter go to their own
+     * builder on pool and Builder.merge joins them; the graph is the same,
+     * edge for edge.
+     */
+    static Dawg build(final WordList words, final ForkJoinPool pool) {
+        final List<ForkJoinTask<Builder>> tasks = new ArrayList<>(26);
+        for (char first = 'A'; first <= 'Z'; first++) {
+            final char letter = first;
+            tasks.add(pool.submit(() -> {
+                final Builder builder = new Builder();
+                words.forEach(letter, builder::add);
+                return builder;
+            }));
+        }
+        final List<Builder> parts = new ArrayList<>(tasks.size());
+        for (final ForkJoinTask<Builder> task : tasks) {
+            parts.add(task.join());
+        }
+        return Builder.merge(parts);
+    }
+
+    /** Maps 'A'-'Z' (either case) to 0-25 and SEPARATOR to 26. */
+    public static int code(final char c) {
+        return (c >= 'a' ? c - 'a' : c - 'A');
+    }
+
+    public int root() {
+        return root;
+    }
+
+    /**
+     * Finds the edge leaving node for letter.
+     * @return the edge index, or NO_EDGE if there is none
+     */
+    public int edge(final int node, final char letter) {
+        if (node == LEAF) {
+            return NO_EDGE;
+        }
+        final int code = code(letter);
+        for (int e = node;; e++) {
+            final int record = edges.get(e);
+            final int c = record & LETTER_MASK;
+            if (c == code) {
+                return e;
+            }
+            if (c > code || (record & LAST_EDGE) != 0) {
+                return NO_EDGE;
+            }
+        }
+    }
+
+    /**
+     * Next edge of the same node, for walking all children:
+     * for (int e = node; e != NO_EDGE; e = dawg.nextEdge(e))
+     */
+    public int nextEdge(final int edge) {
+        return (edges.get(edge) & LAST_EDGE) != 0 ? NO_EDGE : edge + 1;
+    }
+
+    public char letter(final int edge) {
+        return (char) ('A' + (edges.get(edge) & LETTER_MASK));
+    }
+
+    public boolean isWordEnd(final int edge) {
+        return (edges.get(edge) & WORD_END) != 0;
+    }
+
+    /** @return the node reached through edge, or LEAF */
+    public int child(final int edge) {
+        return edges.get(edge) >>> CHILD_SHIFT;
+    }
+
+    /**
+     * Follows the letters of s from the root.
+     * @return the edge of the last letter, or NO_EDGE if s is not a path
+     */
+    public int find(final CharSequence s) {
+        int node = root;
+        int e = NO_EDGE;
+        for (int i = 0; i < s.length(); i++) {
+            e = edge(node, s.charAt(i));
+            if (e == NO_EDGE) {
+                return NO_EDGE;
+            }
+            node = child(e);
+        }
+        return e;
+    }
+
+    public boolean contains(final CharSequence word) {
+        final int e = find(word);
+        return e != NO_EDGE && isWordEnd(e);
+    }
+
+    /** Like contains, but a '_' in pattern stands for any letter. */
+    public boolean matches(final CharSequence pattern) {
+        return pattern.length() > 0 && matches(pattern, 0, root);
+    }
+
+    private boolean matches(final CharSequence pattern, final int index, final int node) {
+        final boolean isLast = index == pattern.length() - 1;
+        final char c = pattern.charAt(index);
+        if (c != '_') {
+            final int e = edge(node, c);
+            return e != NO_EDGE
+                && (isLast ? isWordEnd(e) : matches(pattern, index + 1, child(e)));
+        }
+        if (node == LEAF) {
+            return false;
+        }
+        for (int e = node; e != NO_EDGE; e = nextEdge(e)) {
+            if (letter(e) != SEPARATOR
+                && (isLast ? isWordEnd(e) : matches(pattern, index + 1, child(e)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int edgeCount() {
+        return edges.limit() - 1;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /** The raw edge records, including the unused slot 0. */
+    IntBuffer edges() {
+        return edges.duplicate();
+    }
+
+    /**
+     * Incremental construction of a minimal graph from words added in
+     * strictly increasing order (Daciuk et al.). Only the path of the last
+     * word is mutable: node d on it is the edge records path[d], the last of
+     * which leads on to node d + 1. A node that leaves the path never
+     * changes again, so it goes straight into the output as its run of
+     * records, unless the register, an open hash table of the runs written
+     * so far, already holds an equal one. Children are written before their
+     * parents and no node is ever an object, which keeps the builder at
+     * little more than the graph it builds.
+     */
+    public static final class Builder {
+        private int[][] path = new int[32][];
+        private int[] pathSize = new int[32];
+        private char[] previous = new char[32];
+        private int previousLength = 0;
+        private int[] out = new int[1 << 12];
+        private int outSize = 1;  // slot 0 stays unused
+        private int[] register = new int[1 << 12];  // first edges of written nodes, 0 = free
+        private int nodeCount;
+
+        /**
+         * Adds the next word. Words must come in increasing order of their
+         * letter codes; a repeat of the previous word is ignored.
+         */
+        public void add(final CharSequence word) {
+            final int length = word.length();
+            int common = 0;
+            while (common < length && common < previousLength
+                   && word.charAt(common) == previous[common]) {
+                common++;
+            }
+            if (common == length && common == previousLength) {
+                return;
+            }
+            if (common < previousLength
+                && (common == length || code(word.charAt(common)) < code(previous[common]))) {
+                throw new IllegalArgumentException("words out of order: " + word);
+            }
+            minimize(common);
+            if (length >= path.length) {
+                path = Arrays.copyOf(path, length * 2);
+                pathSize = Arrays.copyOf(pathSize, length * 2);
+                previous = Arrays.copyOf(previous, length * 2);
+            }
+            for (int i = common; i < length; i++) {
+                append(i, code(word.charAt(i)));
+                previous[i] = word.charAt(i);
+            }
+            path[length - 1][pathSize[length - 1] - 1] |= WORD_END;
+            previousLength = length;
+        }
+
+        private void append(final int depth, final int record) {
+            int[] edges = path[depth];
+            if (edges == null) {
+                edges = path[depth] = new int[4];
+            } else if (pathSize[depth] == edges.length) {
+                edges = path[depth] = Arrays.copyOf(edges, edges.length * 2);
+            }
+            edges[pathSize[depth]++] = record;
+        }
+
+        /** Writes out the path nodes below depth and links them to their parents. */
+        private void minimize(final int depth) {
+            for (int d = previousLength; d > depth; d--) {
+                final int child = freeze(path[d], pathSize[d]);
+                pathSize[d] = 0;
+                path[d - 1][pathSize[d - 1] - 1] |= child << CHILD_SHIFT;
+            }
+            previousLength = Math.min(previousLength, depth);
+        }
+
+        /**
+         * The node made of records[0..size), which are flagged LAST_EDGE at
+         * the end: an equal one written before, or else this one, written now.
+         * @return its first edge, or LEAF if size is 0
+         */
+        private int freeze(final int[] records, final int size) {
+            if (size == 0) {
+                return LEAF;
+            }
+            records[size - 1] |= LAST_EDGE;
+            final int mask = register.length - 1;
+            int slot = hash(records, 0, size) & mask;
+            for (int node; (node = register[slot]) != 0; slot = slot + 1 & mask) {
+                if (node + size <= outSize
+                    && Arrays.equals(out, node, node + size, records, 0, size)) {
+                    return node;
+                }
+            }
+            if (outSize + size > 1 << (32 - CHILD_SHIFT)) {
+                throw new IllegalStateException("too many edges: " + (outSize + size));
+            }
+            if (outSize + size > out.length) {
+                out = Arrays.copyOf(out, Math.max(outSize + size, out.length * 2));
+            }
+            final int node = outSize;
+            System.arraycopy(records, 0, out, node, size);
+            outSize += size;
+            register[slot] = node;
+            if (++nodeCount * 2 > register.length) {
+                rehash();
+            }
+            return node;
+        }
+
+        private static int hash(final int[] records, final int from, final int size) {
+            int h = 0;
+            for (int i = from; i < from + size; i++) {
+                h = 31 * h + records[i];
+            }
+            h *= 0x9e3779b9;
+            return h ^ h >>> 16;
+        }
+
+        private void rehash() {
+            final int[] table = new int[register.length * 2];
+            final int mask = table.length - 1;
+            for (final int node : register) {
+                if (node != 0) {
+                    int slot = hash(out, node, runLength(out, node)) & mask;
+                    while (table[slot] != 0) {
+                        slot = slot + 1 & mask;
+                    }
+                    table[slot] = node;
+                }
+            }
+            register = table;
+        }
+
+        /** Number of records of the node starting at records[node]. */
+        private static int runLength(final int[] records, final int node) {
+            int size = 1;
+            while ((records[node + size - 1] & LAST_EDGE) == 0) {
+                size++;
+            }
+            return size;
+        }
+
+        /**
+         * Joins builders that each took a run of the words, in order and
+         * starting with different letters: every word of parts[i] comes
+         * before every word of parts[i + 1]. Every part is only minimized
+         * within itself, so its nodes are frozen once more in the order it
+         * wrote them, children first and with their children renumbered,
+         * to share what the parts have in common. That is the order a single
+         * builder fed all the words would freeze them in, so the result is
+         * its graph, edge for edge.
+         */
+        static Dawg merge(final List<Builder> parts) {
+            final Builder merged = new Builder();
+            final int[] run = new int[LETTER_MASK + 1];
+            for (final Builder part : parts) {
+                part.minimize(0);
+                final int[] renumbered = new int[part.outSize];  // LEAF stays LEAF
+                for (int node = 1; node < part.outSize; ) {
+                    final int size = runLength(part.out, node);
+                    for (int i = 0; i < size; i++) {
+                        run[i] = relink(part.out[node + i], renumbered);
+                    }
+                    renumbered[node] = merged.freeze(run, size);
+                    node += size;
+                }
+                for (int i = 0; i < part.pathSize[0]; i++) {
+                    final int record = relink(part.path[0][i], renumbered);
+                    final int top = merged.pathSize[0];
+                    if (top > 0 && (record & LETTER_MASK) <= (merged.path[0][top - 1] & LETTER_MASK)) {
+                        throw new IllegalArgumentException("parts out of order");
+                    }
+                    merged.append(0, record);
+                }
+            }
+            return merged.build();
+        }
+
+        private static int relink(final int record, final int[] renumbered) {
+            return record & (1 << CHILD_SHIFT) - 1 | renumbered[record >>> CHILD_SHIFT] << CHILD_SHIFT;
+        }
+
+        public Dawg build() {
+            minimize(0);
+            final int root = freeze(path[0], pathSize[0]);
+            return new Dawg(IntBuffer.wrap(Arrays.copyOf(out, outSize)), root, nodeCount);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/*
+
+  Usage: DictionaryImage wordFile [imageFile]
+
+  Compiles wordFile into a binary image holding the finished DAWG and
+  GADDAG, with the hooks and short words of the DAWG (see Hooks and
+  ShortWords), by default next to it as wordFile.img. ScrabblePlayer maps the
+  image instead of parsing the word file when it finds one that is newer
+  than the word file.
+
+  Layout (little endian):
+
+     int    MAGIC
+     int    VERSION
+     int    CRC32 of everything after the header
+     int    dictionary root, node count, edge count (3 ints)
+     int    gaddag root, node count, edge count (3 ints)
+     int    number of dictionary words
+     int[]  dictionary edges, including the unused slot 0
+     int[]  gaddag edges, including the unused slot 0
+     int[]  hook ranks, one per dictionary edge record
+     int[]  front hooks, one per word
+     int[]  back hooks, one per word
+     int[]  short word tables, ShortWords.INTS ints
+
+ */
+public final class DictionaryImage {
+    static final int MAGIC = 0x53435242;  // "SCRB"
+    static final int VERSION = 2;
+    static final String SUFFIX = ".img";
+    private static final int HEADER_INTS = 10;
+
+    private final Dawg dictionary;
+    private final Dawg gaddag;
+    private final Hooks hooks;
+    private final ShortWords shortWords;
+
+    private DictionaryImage(final Dawg dictionary, final Dawg gaddag, final Hooks hooks,
+                            final ShortWords shortWords) {
+        this.dictionary = dictionary;
+        this.gaddag = gaddag;
+        this.hooks = hooks;
+        this.shortWords = shortWords;
+    }
+
+    public Dawg dictionary() {
+        return dictionary;
+    }
+
+    public Dawg gaddag() {
+        return gaddag;
+    }
+
+    public Hooks hooks() {
+        return hooks;
+    }
+
+    public ShortWords shortWords() {
+        return shortWords;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: DictionaryImage wordFile [imageFile]");
+            System.exit(-1);
+        }
+        final String imageFile = args.length == 2 ? args[1] : args[0] + SUFFIX;
+        final WordList words = Dawg.readWords(args[0]);
+        final Dawg dictionary = Dawg.build(words);
+        write(dictionary, Gaddag.build(words), Hooks.build(dictionary), ShortWords.build(dictionary),
+              imageFile);
+        System.out.println("Wrote " + imageFile + " (" + new File(imageFile).length() + " bytes)");
+    }
+
+    /**
+     * @return wordFile itself if it is an image, the image compiled from
+     *         wordFile if there is one that is newer than it, otherwise null
+     */
+    static File imageFor(final String wordFile) {
+        final File words = new File(wordFile);
+        if (wordFile.endsWith(SUFFIX)) {
+            return words;
+        }
+        final File image = new File(wordFile + SUFFIX);
+        return image.isFile() && image.lastModified() >= words.lastModified() ? image : null;
+    }
+
+    public static void write(final Dawg dictionary, final Dawg gaddag, final Hooks hooks,
+                             final ShortWords shortWords, final String imageFile)
+        throws IOException {
+        final IntBuffer[] parts = {dictionary.edges(), gaddag.edges(), hooks.ranks(),
+                                   hooks.fronts(), hooks.backs(), shortWords.table()};
+        int length = 0;
+        for (final IntBuffer part : parts) {
+            length += part.remaining();
+        }
+        final ByteBuffer payload = ByteBuffer.allocate(4 * length).order(ByteOrder.LITTLE_ENDIAN);
+        final IntBuffer ints = payload.asIntBuffer();
+        for (final IntBuffer part : parts) {
+            ints.put(part);
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+
+        final ByteBuffer header = ByteBuffer.allocate(4 * HEADER_INTS).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt((int) crc.getValue())
+            .putInt(dictionary.root()).putInt(dictionary.nodeCount()).putInt(dictionary.edgeCount() + 1)
+            .putInt(gaddag.root()).putInt(gaddag.nodeCount()).putInt(gaddag.edgeCount() + 1)
+            .putInt(hooks.size())
+            .flip();
+        try (RandomAccessFile file = new RandomAccessFile(imageFile, "rw");
+             FileChannel channel = file.getChannel()) {
+            channel.truncate(0);
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            while (payload.hasRemaining()) {
+                channel.write(payload);
+            }
+        }
+    }
+
+    /**
+     * Maps imageFile and reads both graphs and the tables in place.
+     * @throws IOException if the file is not a valid image of this version
+     */
+    public static DictionaryImage open(final File imageFile) throws IOException {
+        final MappedByteBuffer buffer;
+        try (RandomAccessFile file = new RandomAccessFile(imageFile, "r");
+             FileChannel channel = file.getChannel()) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.limit() < 4 * HEADER_INTS || buffer.getInt(0) != MAGIC) {
+            throw new IOException(imageFile + " is not a dictionary image");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException(imageFile + " has version " + buffer.getInt(4)
+                                  + ", expected " + VERSION);
+        }
+        final int dictionaryLength = buffer.getInt(20);
+        final int gaddagLength = buffer.getInt(32);
+        final int words = buffer.getInt(36);
+        final int payloadStart = 4 * HEADER_INTS;
+        if (buffer.limit() != payloadStart + 4L * (2L * dictionaryLength + gaddagLength
+                                                   + 2L * words + ShortWords.INTS)) {
+            throw new IOException(imageFile + " is truncated");
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(buffer.slice(payloadStart, buffer.limit() - payloadStart));
+        if ((int) crc.getValue() != buffer.getInt(8)) {
+            throw new IOException(imageFile + " fails its checksum");
+        }
+        final Dawg dictionary = new Dawg(ints(buffer, payloadStart, dictionaryLength),
+                                         buffer.getInt(12), buffer.getInt(16));
+        int offset = payloadStart + 4 * dictionaryLength;
+        final Dawg gaddag = new Dawg(ints(buffer, offset, gaddagLength),
+                                     buffer.getInt(24), buffer.getInt(28));
+        offset += 4 * gaddagLength;
+        final IntBuffer ranks = ints(buffer, offset, dictionaryLength);
+        offset += 4 * dictionaryLength;
+        final IntBuffer front = ints(buffer, offset, words);
+        offset += 4 * words;
+        final IntBuffer back = ints(buffer, offset, words);
+        offset += 4 * words;
+        final ShortWords shortWords = new ShortWords(ints(buffer, offset, ShortWords.INTS));
+        return new DictionaryImage(dictionary, gaddag, new Hooks(dictionary, ranks, front, back),
+                                   shortWords);
+    }
+
+    private static IntBuffer ints(final ByteBuffer buffer, final int offset, final int length) {
+        return buffer.slice(offset, 4 * length).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+}
@@ -1,13 +1,15 @@
-import java.io.File;
 import java.io.IOException;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Random;
-import java.util.Scanner;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.lang.management.ThreadMXBean;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
@@ -20,12 +22,14 @@ import java.lang.management.MemoryType;
   Email: hchang2014@my.fit.edu
   Pseudocode: Philip Chan
 
-  Usage: EvalScrabblePlayer wordFile [seed] [numOfGames]
+  Usage: EvalScrabblePlayer wordFile [seed] [numOfGames] [--threads N]
 
   Input:
   wordFile has valid words, one on each line
   numOfGames is the number of different games/boards [optional]
   seed is for generating different boards [optional]
+  --threads N plays the games on N threads sharing one player [optional];
+      each game then gets its own seed derived from seed
 
   Description:
 
@@ -62,42 +66,20 @@ public class EvalScrabblePlayer {
 
     private static ThreadMXBean bean;  // for measuring cpu time
     
-    // we deliberately use a worse approach so that we don't give away better ideas
-    // constant for the bonus cells on the board and the points for letters
-    private static final String[] BONUS_POS =
-    {"30","110","62","82","03","73","143","26","66","86","126","37","117", // double letter score
-     "28","68","88","128","011","711","1411","612","812","314","1114",     // double letter score
-     
-     "51","91","15","55","95","135","19","59","99","139","513","913",      // triple letter score
-     
-     "11","22","33","44","113","212","311","410","131","122","113",        // double word score
-     "104","1010","1111","1212","1313",                                    // double word score
-     
-     "00","70","07","014","140","147","714","1414"};                       // triple word score
-     
-     private static final String[] BONUS =
-     {"2L","2L","2L","2L","2L","2L","2L","2L","2L","2L","2L","2L","2L",
-      "2L","2L","2L","2L","2L","2L","2L","2L","2L","2L","2L",
-      
-      "3L","3L","3L","3L","3L","3L","3L","3L","3L","3L","3L","3L",
-      
-      "2W","2W","2W","2W","2W","2W","2W","2W","2W","2W","2W",
-      "2W","2W","2W","2W","2W",
-      
-      "3W","3W","3W","3W","3W","3W","3W","3W"};
-    
-    // points for letters
-    private static final char[] LETTERS =
-    {'_', 'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h', 'i', 'j', 'k', 'l', 'm',
-     'n', 'o', 'p', 'q', 'r', 's', 't', 'u', 'v', 'w', 'x', 'y', 'z'};
-    private static final int[] LETTERS_SCORE =
-    {0, 1, 3, 3, 2, 1, 4, 2, 4, 1, 8, 5, 1, 3,
-     1, 1, 3, 10,1, 1, 1, 1, 4, 4, 8, 4, 10 };
-
     public static void main(String[] args) throws IOException {
 
-        if (args.length < 1 || args.length > 3) {
-            System.err.println("Usage: EvalScrabblePlayer wordFile [seed] [numOfGames]");
+        //Optional "--threads N" plays the games on N threads
+        int threads = 0;
+        List<String> positional = new ArrayList<>(Arrays.asList(args));
+        int threadsFlag = positional.indexOf("--threads");
+        if (threadsFlag >= 0 && threadsFlag + 1 < positional.size()) {
+            threads = Integer.parseInt(positional.get(threadsFlag + 1));
+            positional.subList(threadsFlag, threadsFlag + 2).clear();
+            args = positional.toArray(new String[0]);
+        }
+
+        if (args.length < 1 || args.length > 3 || threadsFlag >= 0 && threads < 1) {
+            System.err.println("Usage: EvalScrabblePlayer wordFile [seed] [numOfGames] [--threads N]");
             System.exit(-1);
         }
 
@@ -115,21 +97,24 @@ public class EvalScrabblePlayer {
 
         // create a bean object for getting cpu time
         bean = ManagementFactory.getThreadMXBean();
-        if (!bean.isCurrentThreadCpuTimeSupported()) {
+        if (!bean.isCurrentThreadCpuTimeSupported() || !bean.isThreadCpuTimeSupported()) {
             System.err.println("cpu time not supported, use wall-clock time:");
             System.err.println("Use System.nanoTime() instead of bean.getCurrentThreadCpuTime()");
             System.exit(-1);
         }
 
         // create our dictionary of words
-        Scanner           dictFile = new Scanner(new File(args[0]));
-        ArrayList<String> dictionary = new ArrayList<>();
-        while (dictFile.hasNext()) {
-            dictionary.add(dictFile.nextLine().toUpperCase());
-        }
+        WordList dictionary = WordList.load(args[0]);
         // create the scrabble player and play scrabble
         ScrabblePlayer player = createScrabblePlayer(args[0]);
-        playScrabble(player, dictionary, numOfGames, seed);
+        if (threads > 0)
+            playScrabbleInParallel(player, dictionary, numOfGames, seed, threads);
+        else
+            playScrabble(player, dictionary, numOfGames, seed);
+
+        // with -Dscrabble.stats=true, where the search time went
+        if (MoveStats.ENABLED)
+            System.out.println("Move statistics: " + MoveStats.get());
 
         ScrabblePlayer player2 = player;  // keep player used to avoid garbage collection of player
     }
@@ -144,9 +129,11 @@ public class EvalScrabblePlayer {
         //Preprocessing in ScrabblePlayer
         System.out.println("Preprocessing in ScrabblePlayer...");
 
-        long startPreProcTime = bean.getCurrentThreadCpuTime();
+        // the player may build its dictionary on other threads (the common
+        //    fork-join pool), so count the cpu time of every thread
+        long startPreProcTime = allThreadsCpuTime();
         ScrabblePlayer player = new ScrabblePlayer(dictFile);
-        long endPreProcTime = bean.getCurrentThreadCpuTime();
+        long endPreProcTime = allThreadsCpuTime();
 
         //Stop if pre-processing runs for more than 5 minutes.
         double processingTimeInSec = (endPreProcTime - startPreProcTime) / 1.0E9;
@@ -164,24 +151,118 @@ public class EvalScrabblePlayer {
     }
 
 
+    /*
+     *  cpu time of all live threads added up; a pool worker outlives the
+     *  preprocessing (the common pool keeps idle workers for a minute), so
+     *  the work it did is still counted at the end
+     */
+    private static long allThreadsCpuTime()
+    {
+    long total = 0;
+    for (long id : bean.getAllThreadIds())
+        {
+        long time = bean.getThreadCpuTime(id);
+        if (time > 0)  // -1 if the thread has died since
+            total += time;
+        }
+    return total;
+    }
+
+
     /*
      *  use the player object to play scrabble with a random seed
      *  measure time, spaaaaaace, points
      */
     private static void playScrabble(ScrabblePlayer player, 
-                 ArrayList<String> dictionary,
+                 WordList dictionary,
                  int numOfGames, long seed)
     {
         System.out.println("Playing Scrabble...");
 
     int       totalPoints = 0;
-    long      totalElapsedTime = 0;
+    long[]    totalElapsedTime = {0};
     char[][]  board = new char[15][15];
     char[]    availableLetters = new char[7]; 
     Random    rand = new Random(seed);
     
     for (int game = 0; game < numOfGames; game++)
+        totalPoints += playGame(player, dictionary, board, availableLetters, rand, totalElapsedTime);
+
+        reportPerformance(totalPoints, totalElapsedTime[0], peakMemoryUsage(), 
+                          numOfGames);
+    }
+
+
+    /*
+     *  same as playScrabble, but games are shared out over a fork-join pool
+     *  of the given size; every game draws its board and letters from its
+     *  own seed derived from the master seed, so the games played do not
+     *  depend on the number of threads. Each worker adds up the cpu time of
+     *  its own thread and the totals are combined at the end.
+     */
+    private static void playScrabbleInParallel(ScrabblePlayer player,
+                 WordList dictionary,
+                 int numOfGames, long seed, int threads)
+    {
+        System.out.println("Playing Scrabble on " + threads + " threads...");
+
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    List<Callable<long[]>> workers = new ArrayList<>();
+    for (int w = 0; w < threads; w++)
         {
+        final int first = w;
+        workers.add(() -> {
+            long[]    elapsedTime = {0};
+            long      points = 0;
+            char[][]  board = new char[15][15];
+            char[]    availableLetters = new char[7];
+            for (int game = first; game < numOfGames; game += threads)
+                points += playGame(player, dictionary, board, availableLetters,
+                                   new Random(gameSeed(seed, game)), elapsedTime);
+            return new long[] {points, elapsedTime[0]};
+        });
+        }
+
+    int  totalPoints = 0;
+    long totalElapsedTime = 0;
+    try {
+        for (Future<long[]> result : pool.invokeAll(workers))
+            {
+            totalPoints += (int) result.get()[0];
+            totalElapsedTime += result.get()[1];
+            }
+    } catch (InterruptedException | ExecutionException e) {
+        throw new IllegalStateException("a game failed", e);
+    } finally {
+        pool.shutdown();
+    }
+
+        reportPerformance(totalPoints, totalElapsedTime, peakMemoryUsage(), 
+                          numOfGames);
+    }
+
+
+    /*
+     * seed of one game in parallel mode: the master seed stepped by the
+     * game number and scrambled (SplitMix64) so neighbouring games differ
+     */
+    private static long gameSeed(long seed, int game)
+    {
+        long z = seed + (game + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+
+    /*
+     *  play one game on board with letters drawn from rand,
+     *  add the cpu time of the move to elapsedTime[0] and return the points
+     */
+    private static int playGame(ScrabblePlayer player, WordList dictionary,
+                                char[][] board, char[] availableLetters,
+                                Random rand, long[] elapsedTime)
+    {
         //to do: initialize the board with spaces
         //       add a random word of at most length 7 from the dictionary
         ScrabbleWord initialWord = generateBoard(board, dictionary, rand);
@@ -207,35 +288,31 @@ public class EvalScrabblePlayer {
             System.err.println("player.getScrabbleWord() exceeded 1 second");
             System.exit(-1);
             }
-        totalElapsedTime += (endTime - startTime);
+        elapsedTime[0] += (endTime - startTime);
 
         //Calculate points for the words found
-        totalPoints += calculatePoints(playerWord, initialWord, board, availableLetters, dictionary);
-        //System.out.println("Total: " + totalPoints);
-        }
-
-        reportPerformance(totalPoints, totalElapsedTime, peakMemoryUsage(), 
-                          numOfGames);
+        return calculatePoints(playerWord, initialWord, board, availableLetters, dictionary);
     }
 
 
     /**
      * Setup the board
      */
-    private static ScrabbleWord generateBoard(char[][] board, ArrayList<String> dictionary, Random rand)
+    static ScrabbleWord generateBoard(char[][] board, WordList dictionary, Random rand)
     {        
     // initialize board to spaces
     for (int row = 0; row < board.length; row++)
         for (int col = 0; col < board[0].length; col++)
         board[row][col] = ' ';
     
-        // randomly choose a word
-        int randomIndex = rand.nextInt(dictionary.size());
-        String initialWord = dictionary.get(randomIndex);
+        // randomly choose a word, from the lines in file order so a seed
+        //    still picks the same boards
+        int randomIndex = rand.nextInt(dictionary.lineCount());
+        String initialWord = dictionary.line(randomIndex);
         while (initialWord.length() > 7)
         {
-            randomIndex = rand.nextInt(dictionary.size());
-            initialWord = dictionary.get(randomIndex);
+            randomIndex = rand.nextInt(dictionary.lineCount());
+            initialWord = dictionary.line(randomIndex);
         }
         
         // choose the orientation and position, put the initial word onto the board
@@ -283,7 +360,7 @@ public class EvalScrabblePlayer {
     * Haoran: randomly pick up 7 letters to be the available letters
     *         according to the distribution on wiki page
     */
-    private static void generateAvailableLetters(char[] availableLetters, Random rand)
+    static void generateAvailableLetters(char[] availableLetters, Random rand)
     {
         // initial distribution (total 100 tiles):
         // blank:2 A:9 B:2 C:2 D:4 E:12 F:2 G:3 H:2 I:9 J:1 K:1 L:4 M:2
@@ -391,7 +468,7 @@ public class EvalScrabblePlayer {
      * @return Positive or negative points for the word
      */
     private static int calculatePoints(ScrabbleWord playerWord, ScrabbleWord initialWord, char[][] board,
-                                       char[] availableLetters, ArrayList<String> dictionary) 
+                                       char[] availableLetters, WordList dictionary) 
     {
         // check if it is a valid word
         ScrabbleWord returnWord = validPlayWord(playerWord, initialWord, board, availableLetters, dictionary);        
@@ -413,66 +490,8 @@ public class EvalScrabblePlayer {
     // compute the points for a single word
     private static int singleWordPoints(ScrabbleWord playerWord)
     {        
-        int totalScore = 0, bonusForWord = 1;
-        
-        String playerW = playerWord.getScrabbleWord();
-        int rowID = playerWord.getStartRow();
-        int colID = playerWord.getStartColumn();
-        
-        for (int i = 0; i < playerW.length(); i++)
-        {
-            char letterInWord = playerW.charAt(i);
-            
-            // find the score for this letter
-            int letterPoints = 0;
-            for (char tempChar: LETTERS)
-            {
-                if (tempChar == letterInWord)
-                    letterPoints = LETTERS_SCORE[tempChar];
-            }
-            
-            //System.out.printf("The %d th letter of %s is %c: %d points, ", i, playerW, letterInWord, letterPoints);
-            
-            //System.out.printf("pos (row, col): (%d, %d), ", rowID, colID);
-            // find the score on board
-            String position = Integer.toString(rowID) + Integer.toString(colID);
-            String bonusFromBoard = "";
-            
-            // find the score on board if exist
-            for (int j = 0; j < BONUS_POS.length; j++)
-            {
-                if (position.equals(BONUS_POS[j]))
-                    bonusFromBoard = BONUS[j];
-            }
-            
-            // double/triple letter score
-            if (bonusFromBoard.equals("2L"))
-                letterPoints = letterPoints * 2;
-            else if (bonusFromBoard.equals("3L"))
-                letterPoints = letterPoints * 3;
-            // double/triple word score
-            else if (bonusFromBoard.equals("2W"))
-                bonusForWord = bonusForWord * 2;
-            else if (bonusFromBoard.equals("3W"))
-                bonusForWord = bonusForWord * 3;
-            else
-                bonusForWord = bonusForWord * 1;
-            
-            // move to the next cell
-            if (playerWord.getOrientation() == 'h')
-                colID++;
-            else
-                rowID++;
-            
-            // sum them up
-            totalScore = totalScore + letterPoints;
-                
-        }
-        // final score must multiply the bonus
-        totalScore = totalScore * bonusForWord;
-        
-        // return
-        return totalScore;
+        return Scorer.wordPoints(playerWord.getScrabbleWord(), playerWord.getStartRow(),
+                                 playerWord.getStartColumn(), playerWord.getOrientation() == 'h');
     }
 
     /**
@@ -485,7 +504,7 @@ public class EvalScrabblePlayer {
     *                                 or return the new Word
     */
     private static ScrabbleWord validPlayWord(ScrabbleWord playWord, ScrabbleWord initialWord, char[][] board,
-                                 char[] availableLetters, ArrayList<String> dictionary)
+                                 char[] availableLetters, WordList dictionary)
     {
         // default return value
         ScrabbleWord returnWord = playWord;
@@ -585,39 +604,14 @@ public class EvalScrabblePlayer {
 
     
     // check if a word is in the dictionary
-    private static boolean isInDictionary(String word, ArrayList<String> dictionary)
+    private static boolean isInDictionary(String word, WordList dictionary)
     {
-        // if not blank tile
+        // if the word doesn't contain blank tile, directly check
         if (!word.contains("_"))
-        {
-            // if the word doesn't contain blank tile, directly check
-            if (!dictionary.contains(word))
-            {
-                //System.out.println(word + " not in the dictionary.");
-                return false;
-            }
-            else
-                return true;
-        }
+            return dictionary.contains(word);
+        // otherwise let the dictionary try every letter for the blanks
         else
-        {
-            int indexOfBlank = word.indexOf("_");
-            // try different letters (a-z)
-            for (int i = 0; i <= 26; i++)
-            {
-                char trial = (char)(i + 65); // (int)'A' = 65
-                // change blank to trial
-                String testingWord = word.substring(0, indexOfBlank) + trial + 
-                                     word.substring(indexOfBlank + 1, word.length());
-                
-                // check if this testingWord in dictionary
-                // recursive call because it may have multiple blanks
-                if (isInDictionary(testingWord, dictionary))
-                    return true;
-            }
-            
-            return false;
-        }
+            return dictionary.matches(word);
     }
     
     
@@ -748,7 +742,7 @@ public class EvalScrabblePlayer {
     * @return a ScrabbleWord can be a newWord or null
     */
     private static ScrabbleWord isExtending(ScrabbleWord playWord, ScrabbleWord initialWord,
-                                            ArrayList<String> dictionary)
+                                            WordList dictionary)
     {
         ScrabbleWord newWord;
         String playW = playWord.getScrabbleWord();
@@ -0,0 +1,37 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the evaluator end to end and checks that the player scores, i.e.
+ * that its plays are ones the evaluator accepts.
+ *
+ *   java EvalScrabblePlayerTest [wordFile]
+ *
+ * Exits with an AssertionError if the average points are not above 0.
+ */
+public class EvalScrabblePlayerTest {
+    public static void main(final String[] args) throws IOException {
+        final String wordFile = args.length > 0 ? args[0] : "words.txt";
+        final ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        final PrintStream out = System.out;
+        System.setOut(new PrintStream(captured, true));
+        try {
+            EvalScrabblePlayer.main(new String[] {wordFile, "1", "200"});
+        } finally {
+            System.setOut(out);
+        }
+        final String report = captured.toString();
+        final Matcher average = Pattern.compile("Average Points: ([0-9.]+)").matcher(report);
+        if (!average.find()) {
+            throw new AssertionError("no average in the evaluator's report:\n" + report);
+        }
+        final double points = Double.parseDouble(average.group(1));
+        if (!(points > 0)) {
+            throw new AssertionError("average points " + points + ", expected more than 0");
+        }
+        System.out.println("ok: average points " + points);
+    }
+}
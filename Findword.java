@@ -1,45 +1,50 @@
-public Findword {
-
-  //call this method
-  public static ScrabbleWord findWord(char[][] board) {
-    for (int row = 0; row < board.length; row ++) {
-        for (int col = 0; col < board.length; col++) {
-            if (board[row][col] != ' ') {
-                char orientation;
-                if (board[row][col + 1] != ' ') {
-                    orientation = 'h';
-                } else if (board[row + 1][col] != ' ') {
-                    orientation = 'v';
-                } else {
-                    orientation = 'o';
-
-                }
-                String word = getWord(orientation, board, row, col);
-                return new ScrabbleWord(word, row, col, orientation);
-            }
-        }
-    }
-    return null;
-  }
-
-  //this method only supports findWord
-  public static String getWord(char orientation, char[][] board, int row, int col) {
-      if (orientation == 'h') {
-          int wordSize = board.length - col;
-          String word = "";
-          for (int c = 0; c < wordSize; c++) {
-              word = word.concat(Character.toString(board[row][col + c]));
-          }
-          return word;
-      } else if (orientation == 'v'){
-          int wordSize = board.length - row;
-          String word = "";
-          for (int r = 0; r < wordSize; r++) {
-              word = word.concat(Character.toString(board[row + r][col]));
-          }
-          return word;
-      } else {
-          return Character.toString(board[row][col]);
-      }
-  }
-}
+public class Findword {
+
+  //call this method
+  //returns the word through the first tile in row-major order: 'h' if it
+  //continues to the right, 'v' if downwards, 'o' for a lone tile;
+  //null on an empty board
+  public static ScrabbleWord findWord(char[][] board) {
+    for (int row = 0; row < board.length; row ++) {
+        for (int col = 0; col < board[row].length; col++) {
+            if (board[row][col] != ' ') {
+                char orientation;
+                if (col + 1 < board[row].length && board[row][col + 1] != ' ') {
+                    orientation = 'h';
+                } else if (row + 1 < board.length && board[row + 1][col] != ' ') {
+                    orientation = 'v';
+                } else {
+                    orientation = 'o';
+
+                }
+                String word = getWord(orientation, board, row, col);
+                return new ScrabbleWord(word, row, col, orientation);
+            }
+        }
+    }
+    return null;
+  }
+
+  //the same for a Board, by the same rules
+  public static ScrabbleWord findWord(Board board) {
+      return findWord(board.cells());
+  }
+
+  //this method only supports findWord
+  //reads from (row, col) up to the first empty square or the edge
+  public static String getWord(char orientation, char[][] board, int row, int col) {
+      final StringBuilder word = new StringBuilder();
+      if (orientation == 'h') {
+          for (int c = col; c < board[row].length && board[row][c] != ' '; c++) {
+              word.append(board[row][c]);
+          }
+      } else if (orientation == 'v'){
+          for (int r = row; r < board.length && board[r][col] != ' '; r++) {
+              word.append(board[r][col]);
+          }
+      } else {
+          word.append(board[row][col]);
+      }
+      return word.toString();
+  }
+}
@@ -0,0 +1,147 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * Builds a GADDAG: for every word w and every split 1 <= k <= n it holds the
+ * path rev(w[0..k)) SEPARATOR w[k..n), except that the full reversal rev(w)
+ * has no separator. Starting from any letter of a word we can therefore
+ * spell the word leftwards, cross the separator and finish it rightwards,
+ * which is what anchor-based move generation needs.
+ *
+ * The paths are stored in a minimized Dawg so the usual walk API applies.
+ */
+public final class Gaddag {
+
+    private Gaddag() {
+    }
+
+    /** Builds the GADDAG of words. */
+    static Dawg build(final WordList words) {
+        final Dawg.Builder builder = new Dawg.Builder();
+        // every path starts with a letter, so filling the builder one first
+        // letter at a time keeps its input sorted without ever holding all
+        // the paths in memory at once
+        for (char first = 'A'; first <= 'Z'; first++) {
+            add(builder, words, first);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Like build(words), but the paths of each first letter go to their own
+     * builder on pool, and Dawg.Builder.merge joins them into the same graph.
+     */
+    static Dawg build(final WordList words, final ForkJoinPool pool) {
+        final List<ForkJoinTask<Dawg.Builder>> tasks = new ArrayList<>(26);
+        for (char first = 'A'; first <= 'Z'; first++) {
+            final char letter = first;
+            tasks.add(pool.submit(() -> add(new Dawg.Builder(), words, letter)));
+        }
+        final List<Dawg.Builder> parts = new ArrayList<>(tasks.size());
+        for (final ForkJoinTask<Dawg.Builder> task : tasks) {
+            parts.add(task.join());
+        }
+        return Dawg.Builder.merge(parts);
+    }
+
+    /** Adds the paths of words that start with first to builder, in order. */
+    private static Dawg.Builder add(final Dawg.Builder builder, final WordList words,
+                                    final char first) {
+        final Paths paths = new Paths(first);
+        words.forEachContaining(first, paths);
+        paths.addTo(builder);
+        return builder;
+    }
+
+    /**
+     * The paths that start with one letter. That letter is left implied, so
+     * the rest of a path from a word of up to PACKED_LENGTH letters fits
+     * five bits a symbol (1-26 for 'A'-'Z', 27 for SEPARATOR, 0 pads) into a
+     * long that sorts like the path. Only the paths of longer words are
+     * strings.
+     */
+    private static final class Paths implements Consumer<CharSequence> {
+        private static final int PACKED_LENGTH = 12;
+
+        private final char first;
+        private long[] packed = new long[1 << 12];
+        private int size;
+        private final ArrayList<String> longer = new ArrayList<>();
+        private final StringBuilder path = new StringBuilder();
+
+        Paths(final char first) {
+            this.first = first;
+        }
+
+        @Override
+        public void accept(final CharSequence word) {
+            final int length = word.length();
+            for (int k = 1; k <= length; k++) {
+                if (word.charAt(k - 1) != first) {
+                    continue;
+                }
+                if (length > PACKED_LENGTH) {
+                    longer.add(spell(word, k).toString());
+                    continue;
+                }
+                long key = 0;
+                int shift = 5 * PACKED_LENGTH;
+                for (int i = k - 2; i >= 0; i--) {
+                    key |= (long) (Dawg.code(word.charAt(i)) + 1) << (shift -= 5);
+                }
+                if (k < length) {
+                    key |= (long) (Dawg.code(Dawg.SEPARATOR) + 1) << (shift -= 5);
+                    for (int i = k; i < length; i++) {
+                        key |= (long) (Dawg.code(word.charAt(i)) + 1) << (shift -= 5);
+                    }
+                }
+                if (size == packed.length) {
+                    packed = Arrays.copyOf(packed, size * 2);
+                }
+                packed[size++] = key;
+            }
+        }
+
+        /** The path of word split after its k-th letter, in the path buffer. */
+        private StringBuilder spell(final CharSequence word, final int k) {
+            path.setLength(0);
+            for (int i = k - 1; i >= 0; i--) {
+                path.append(word.charAt(i));
+            }
+            if (k < word.length()) {
+                path.append(Dawg.SEPARATOR).append(word, k, word.length());
+            }
+            return path;
+        }
+
+        /** Sorts the paths and adds them to builder. */
+        void addTo(final Dawg.Builder builder) {
+            Arrays.sort(packed, 0, size);
+            Collections.sort(longer);
+            int j = 0;
+            for (int i = 0; i < size; i++) {
+                path.setLength(0);
+                path.append(first);
+                for (int shift = 5 * PACKED_LENGTH - 5; shift >= 0; shift -= 5) {
+                    final int code = (int) (packed[i] >>> shift) & 0x1f;
+                    if (code == 0) {
+                        break;
+                    }
+                    path.append((char) ('A' + code - 1));
+                }
+                for (; j < longer.size() && CharSequence.compare(longer.get(j), path) < 0; j++) {
+                    builder.add(longer.get(j));
+                }
+                builder.add(path);
+            }
+            for (; j < longer.size(); j++) {
+                builder.add(longer.get(j));
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * The hooks of every dictionary word: the front hooks of W are the letters
+ * c (bit 0 = 'A') for which cW is a word, the back hooks those for which
+ * Wc is one.
+ *
+ * Both masks are kept by word number. Every edge of the DAWG records how
+ * many words its node reaches through the edges before it, so adding these
+ * up along a word's path gives its rank in alphabetical order, a perfect
+ * hash of the word onto its terminal edge. Looking up the hooks of a word
+ * thus costs the walk that checks it is a word and nothing more.
+ *
+ * Like the graph, the tables are IntBuffers, so a DictionaryImage can hold
+ * them and a mapped dictionary comes with its hooks already worked out.
+ */
+public final class Hooks {
+    private final Dawg dictionary;
+    private final IntBuffer ranks;  // by edge: words its node reaches through earlier edges
+    private final IntBuffer front;  // by word number
+    private final IntBuffer back;   // likewise
+
+    Hooks(final Dawg dictionary, final IntBuffer ranks, final IntBuffer front, final IntBuffer back) {
+        this.dictionary = dictionary;
+        this.ranks = ranks;
+        this.front = front;
+        this.back = back;
+    }
+
+    /** Numbers the words of dictionary and finds all their hooks. */
+    static Hooks build(final Dawg dictionary) {
+        final int edgeCount = dictionary.edges().limit();
+        final int[] ranks = new int[edgeCount];
+        final int[] reached = new int[edgeCount];  // by node, 0 until counted
+        final int words = dictionary.root() == Dawg.LEAF
+            ? 0 : count(dictionary, dictionary.root(), ranks, reached);
+        final int[] front = new int[words];
+        final int[] back = new int[words];
+        // the buffers wrap the arrays, so collect fills in the tables of hooks
+        final Hooks hooks = new Hooks(dictionary, IntBuffer.wrap(ranks), IntBuffer.wrap(front),
+                                      IntBuffer.wrap(back));
+        hooks.collect(dictionary.root(), new char[64], 0, new int[1], front, back);
+        return hooks;
+    }
+
+    /** Number of words reached from node, filling in the ranks of its edges. */
+    private static int count(final Dawg dictionary, final int node, final int[] ranks,
+                             final int[] reached) {
+        if (reached[node] == 0) {
+            int words = 0;
+            for (int e = node; e != Dawg.NO_EDGE; e = dictionary.nextEdge(e)) {
+                ranks[e] = words;
+                if (dictionary.isWordEnd(e)) {
+                    words++;
+                }
+                final int child = dictionary.child(e);
+                if (child != Dawg.LEAF) {
+                    words += count(dictionary, child, ranks, reached);
+                }
+            }
+            reached[node] = words;
+        }
+        return reached[node];
+    }
+
+    /**
+     * Visits the words below node in alphabetical order, so the n-th one
+     * found is word number n, recording its back hooks and adding its first
+     * letter to the front hooks of the rest of it.
+     */
+    private void collect(final int node, char[] word, final int depth, final int[] next,
+                         final int[] front, final int[] back) {
+        if (node == Dawg.LEAF) {
+            return;
+        }
+        if (depth == word.length) {
+            word = Arrays.copyOf(word, depth * 2);
+        }
+        for (int e = node; e != Dawg.NO_EDGE; e = dictionary.nextEdge(e)) {
+            word[depth] = dictionary.letter(e);
+            final int child = dictionary.child(e);
+            if (dictionary.isWordEnd(e)) {
+                final int number = next[0]++;
+                for (int f = child; f != Dawg.NO_EDGE && f != Dawg.LEAF; f = dictionary.nextEdge(f)) {
+                    if (dictionary.isWordEnd(f)) {
+                        back[number] |= 1 << Dawg.code(dictionary.letter(f));
+                    }
+                }
+                final int rest = number(word, 1, depth + 1);
+                if (rest >= 0) {
+                    front[rest] |= 1 << Dawg.code(word[0]);
+                }
+            }
+            collect(child, word, depth + 1, next, front, back);
+        }
+    }
+
+    /** Number of dictionary words. */
+    public int size() {
+        return front.limit();
+    }
+
+    /** The edge ranks, one per dictionary edge record, for DictionaryImage. */
+    IntBuffer ranks() {
+        return ranks.duplicate();
+    }
+
+    /** The front hooks by word number, for DictionaryImage. */
+    IntBuffer fronts() {
+        return front.duplicate();
+    }
+
+    /** The back hooks by word number, for DictionaryImage. */
+    IntBuffer backs() {
+        return back.duplicate();
+    }
+
+    /** The alphabetical rank of the word in letters[from..to), or -1 if it is none. */
+    int number(final char[] letters, final int from, final int to) {
+        if (from == to) {
+            return -1;
+        }
+        int node = dictionary.root();
+        int number = 0;
+        for (int i = from; i < to; i++) {
+            final int e = dictionary.edge(node, letters[i]);
+            if (e == Dawg.NO_EDGE) {
+                return -1;
+            }
+            number += ranks.get(e);
+            if (i == to - 1) {
+                return dictionary.isWordEnd(e) ? number : -1;
+            }
+            if (dictionary.isWordEnd(e)) {
+                number++;  // the shorter word comes first
+            }
+            node = dictionary.child(e);
+        }
+        return -1;
+    }
+
+    /** Front hooks of the word with the given number. */
+    int front(final int number) {
+        return front.get(number);
+    }
+
+    /** Back hooks of the word with the given number. */
+    int back(final int number) {
+        return back.get(number);
+    }
+
+    /** Letters that can go in front of word to make a word; 0 if it is none. */
+    public int frontHooks(final CharSequence word) {
+        final int number = number(word.toString().toCharArray(), 0, word.length());
+        return number < 0 ? 0 : front.get(number);
+    }
+
+    /** Letters that can go after word to make a word; 0 if it is none. */
+    public int backHooks(final CharSequence word) {
+        final int number = number(word.toString().toCharArray(), 0, word.length());
+        return number < 0 ? 0 : back.get(number);
+    }
+}
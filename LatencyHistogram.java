@@ -0,0 +1,84 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A log-linear histogram of non-negative values (nanoseconds here), in the
+ * manner of HdrHistogram: each power of two is split into SUB_BUCKETS
+ * equal buckets, so any value is recorded to within 1 / SUB_BUCKETS of
+ * itself (about 3%) however large it is. Recording is one atomic
+ * increment and safe from any number of threads.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    // values below 2 * SUB_BUCKETS get a bucket each, every doubling after that SUB_BUCKETS
+    private final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BITS) * SUB_BUCKETS);
+
+    public void record(final long value) {
+        counts.incrementAndGet(bucket(Math.max(0, value)));
+    }
+
+    static int bucket(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        // value >>> shift keeps the top SUB_BITS + 1 bits, SUB_BUCKETS to 2 * SUB_BUCKETS - 1
+        final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    /** Largest value that falls in bucket b. */
+    static long highest(final int b) {
+        if (b < SUB_BUCKETS) {
+            return b;
+        }
+        final int shift = b / SUB_BUCKETS - 1;
+        final long top = b % SUB_BUCKETS + SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+
+    public long count() {
+        long total = 0;
+        for (int b = 0; b < counts.length(); b++) {
+            total += counts.get(b);
+        }
+        return total;
+    }
+
+    /** The value at quantile q (0 to 1), 0 if nothing was recorded. */
+    public long valueAt(final double q) {
+        final long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int b = 0; b < counts.length(); b++) {
+            seen += counts.get(b);
+            if (seen >= rank) {
+                return highest(b);
+            }
+        }
+        return highest(counts.length() - 1);
+    }
+
+    public void reset() {
+        for (int b = 0; b < counts.length(); b++) {
+            counts.set(b, 0);
+        }
+    }
+
+    /** Calls out.bucket(highest value, count) for every non-empty bucket. */
+    void forEach(final BucketConsumer out) {
+        for (int b = 0; b < counts.length(); b++) {
+            final long count = counts.get(b);
+            if (count > 0) {
+                out.bucket(highest(b), count);
+            }
+        }
+    }
+
+    interface BucketConsumer {
+        void bucket(long highest, long count);
+    }
+}
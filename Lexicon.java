@@ -0,0 +1,148 @@
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.FutureTask;
+
+/**
+ * The word graphs of one word file, loaded once per JVM and shared by
+ * every ScrabblePlayer reading that file.
+ *
+ * A Lexicon never changes after it is built, and the cache publishes it
+ * through a FutureTask, so players on any thread can read it without
+ * locking. What a search writes lives in a Search, a MoveGenerator and a
+ * TopMoves that a player borrows for one search and then gives back.
+ * Idle ones wait in a queue, so there are only ever as many as there have
+ * been searches at once, however many threads, virtual ones included,
+ * come and go.
+ */
+public final class Lexicon {
+    private static final ConcurrentHashMap<String, FutureTask<Lexicon>> LOADED =
+        new ConcurrentHashMap<>();
+
+    private final Dawg dictionary;
+    private final Dawg gaddag;
+    private final Hooks hooks;
+    private final ShortWords shortWords;
+    private final ConcurrentLinkedQueue<Search> idle = new ConcurrentLinkedQueue<>();
+
+    private Lexicon(final Dawg dictionary, final Dawg gaddag, final Hooks hooks,
+                    final ShortWords shortWords) {
+        this.dictionary = dictionary;
+        this.gaddag = gaddag;
+        this.hooks = hooks;
+        this.shortWords = shortWords;
+    }
+
+    /** A lexicon working out the tables of dictionary itself. */
+    private Lexicon(final Dawg dictionary, final Dawg gaddag) {
+        this(dictionary, gaddag, Hooks.build(dictionary), ShortWords.build(dictionary));
+    }
+
+    /** Scratch space of one search: its generator and its result buffer. */
+    static final class Search {
+        final MoveGenerator generator;
+        final TopMoves top = new TopMoves(1);
+
+        private Search(final MoveGenerator generator) {
+            this.generator = generator;
+        }
+    }
+
+    /**
+     * The lexicon of wordFile, built by the first caller and shared with
+     * every later one; concurrent first callers wait for one build.
+     * @throws FileNotFoundException if wordFile cannot be read
+     */
+    public static Lexicon load(final String wordFile) throws FileNotFoundException {
+        final String key = new File(wordFile).getAbsoluteFile().toPath().normalize().toString();
+        FutureTask<Lexicon> task = LOADED.get(key);
+        if (task == null) {
+            final FutureTask<Lexicon> mine = new FutureTask<>(() -> build(wordFile));
+            task = LOADED.putIfAbsent(key, mine);
+            if (task == null) {
+                task = mine;
+                mine.run();
+            }
+        }
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            LOADED.remove(key, task);  // let a later call try again
+            final Throwable cause = e.getCause();
+            if (cause instanceof FileNotFoundException) {
+                throw (FileNotFoundException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while loading " + wordFile, e);
+        }
+    }
+
+    private static Lexicon build(final String wordFile) throws FileNotFoundException {
+        try {
+            // a precompiled image (see DictionaryImage) is mapped, not parsed,
+            //    and brings the tables along
+            final File image = DictionaryImage.imageFor(wordFile);
+            if (image != null) {
+                final DictionaryImage compiled = DictionaryImage.open(image);
+                return new Lexicon(compiled.dictionary(), compiled.gaddag(), compiled.hooks(),
+                                   compiled.shortWords());
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        final WordList words = Dawg.readWords(wordFile);
+        final ForkJoinPool pool = ForkJoinPool.commonPool();
+        if (pool.getParallelism() < 2) {
+            // merging the parts would cost more than one core saves
+            return new Lexicon(Dawg.build(words), Gaddag.build(words));
+        }
+        // the two graphs, and each first letter within them, build side by side
+        final ForkJoinTask<Dawg> dictionary = pool.submit(() -> Dawg.build(words, pool));
+        final Dawg gaddag = Gaddag.build(words, pool);
+        return new Lexicon(dictionary.join(), gaddag);
+    }
+
+    public Dawg dictionary() {
+        return dictionary;
+    }
+
+    public Dawg gaddag() {
+        return gaddag;
+    }
+
+    public Hooks hooks() {
+        return hooks;
+    }
+
+    public ShortWords shortWords() {
+        return shortWords;
+    }
+
+    /**
+     * An idle Search over this lexicon, or a new one if all are in use; its
+     * TopMoves is to be reset before use. Hand it back with giveBack once
+     * done, and do not touch it after.
+     */
+    Search borrow() {
+        final Search search = idle.poll();
+        return search != null ? search : new Search(new MoveGenerator(gaddag, dictionary, hooks, shortWords));
+    }
+
+    /** Returns a Search from borrow() for the next one to use. */
+    void giveBack(final Search search) {
+        idle.offer(search);
+    }
+}
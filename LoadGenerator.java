@@ -0,0 +1,153 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+
+  Usage: LoadGenerator wordFile [seed] [requests] [clients] [--url URL] [--deadline MS]
+
+  Replays boards and racks generated from seed the way EvalScrabblePlayer
+  makes them against a ScrabbleServer, from clients concurrent clients
+  (default 1000 requests from 8 clients). Without --url it starts a
+  server on a free loopback port in this JVM; --url points it at one
+  running elsewhere, e.g. http://localhost:8080/move. --deadline passes
+  deadlineMs to every request.
+
+  Reports moves per second and the p50, p99 and p99.9 latency as seen by
+  the clients, plus the number of failed requests.
+
+ */
+public class LoadGenerator {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String url = null;
+        long deadlineMs = -1;
+        final List<String> positional = new ArrayList<>(Arrays.asList(args));
+        final int urlFlag = positional.indexOf("--url");
+        if (urlFlag >= 0 && urlFlag + 1 < positional.size()) {
+            url = positional.get(urlFlag + 1);
+            positional.subList(urlFlag, urlFlag + 2).clear();
+        }
+        final int deadlineFlag = positional.indexOf("--deadline");
+        if (deadlineFlag >= 0 && deadlineFlag + 1 < positional.size()) {
+            deadlineMs = Long.parseLong(positional.get(deadlineFlag + 1));
+            positional.subList(deadlineFlag, deadlineFlag + 2).clear();
+        }
+        args = positional.toArray(new String[0]);
+        if (args.length < 1 || args.length > 4) {
+            System.err.println("Usage: LoadGenerator wordFile [seed] [requests] [clients]"
+                               + " [--url URL] [--deadline MS]");
+            System.exit(-1);
+        }
+        final long seed = args.length > 1 ? Long.parseLong(args[1]) : 12345;
+        final int requests = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        final int clients = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+
+        final String[] bodies = corpus(args[0], seed, requests);
+        ScrabbleServer server = null;
+        if (url == null) {
+            server = new ScrabbleServer(new ScrabblePlayer(args[0]), 0);
+            server.start();
+            url = "http://localhost:" + server.port() + ScrabbleServer.PATH;
+        }
+        final URI uri = URI.create(deadlineMs < 0 ? url : url + "?deadlineMs=" + deadlineMs);
+        try {
+            run(uri, bodies, clients);
+        } finally {
+            if (server != null) {
+                server.stop();
+            }
+        }
+    }
+
+    /** Request bodies for the boards and racks seed generates. */
+    private static String[] corpus(final String wordFile, final long seed, final int requests)
+        throws IOException {
+        final WordList dictionary = WordList.load(wordFile);
+        final Random rand = new Random(seed);
+        final String[] bodies = new String[requests];
+        for (int i = 0; i < requests; i++) {
+            final char[][] board = new char[ScrabbleServer.SIZE][ScrabbleServer.SIZE];
+            final char[] rack = new char[7];
+            EvalScrabblePlayer.generateBoard(board, dictionary, rand);
+            EvalScrabblePlayer.generateAvailableLetters(rack, rand);
+            bodies[i] = ScrabbleServer.encode(board, rack);
+        }
+        return bodies;
+    }
+
+    private static void run(final URI uri, final String[] bodies, final int clients)
+        throws InterruptedException {
+        final HttpClient http = HttpClient.newHttpClient();
+        // one request to warm up the connection and the player, not counted
+        send(http, uri, bodies[0]);
+
+        final long[] latencies = new long[bodies.length];
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicInteger failures = new AtomicInteger();
+        final ExecutorService pool = Executors.newFixedThreadPool(clients);
+        final List<Future<?>> running = new ArrayList<>();
+        final long start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            running.add(pool.submit(() -> {
+                for (int i = next.getAndIncrement(); i < bodies.length; i = next.getAndIncrement()) {
+                    final long sent = System.nanoTime();
+                    if (!send(http, uri, bodies[i])) {
+                        failures.incrementAndGet();
+                    }
+                    latencies[i] = System.nanoTime() - sent;
+                }
+                return null;
+            }));
+        }
+        for (final Future<?> client : running) {
+            try {
+                client.get();
+            } catch (ExecutionException e) {
+                e.getCause().printStackTrace();
+            }
+        }
+        final long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+
+        Arrays.sort(latencies);
+        System.out.printf("%d requests from %d clients in %.2f s: %.1f moves/s, %d failed%n",
+                          bodies.length, clients, elapsed / 1e9,
+                          bodies.length / (elapsed / 1e9), failures.get());
+        System.out.printf("latency p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms%n",
+                          percentile(latencies, 0.50), percentile(latencies, 0.99),
+                          percentile(latencies, 0.999), latencies[latencies.length - 1] / 1e6);
+    }
+
+    /** True if the server answered 200 with a play or "-". */
+    private static boolean send(final HttpClient http, final URI uri, final String body)
+        throws InterruptedException {
+        final HttpRequest request = HttpRequest.newBuilder(uri)
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+        try {
+            final HttpResponse<String> response =
+                http.send(request, HttpResponse.BodyHandlers.ofString());
+            return response.statusCode() == 200
+                && (response.body().trim().equals("-") || ScrabbleServer.decode(response.body()) != null);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /** The q-quantile of sorted, in milliseconds (nearest rank). */
+    private static double percentile(final long[] sorted, final double q) {
+        final int rank = (int) Math.ceil(q * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank))] / 1e6;
+    }
+}
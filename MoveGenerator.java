@@ -0,0 +1,590 @@
+import java.util.Arrays;
+
+/**
+ * Anchor-based move generation over a GADDAG (Gordon, 1994).
+ *
+ * An anchor is an empty square next to a tile (or the centre square on an
+ * empty board). Every legal play covers at least one anchor, so for each
+ * anchor we walk the GADDAG from the anchor leftwards, cross the separator
+ * and continue rightwards. Each play is produced once, from its leftmost
+ * anchor: the leftward walk never steps onto another anchor. The anchors
+ * come from a Board, which keeps them as one bitmask per line.
+ *
+ * Words are reported in a char buffer indexed by position along the line;
+ * upper case letters are real tiles, lower case letters are blanks.
+ *
+ * Plays are scored as they are spelled (main word sum, word multiplier and
+ * cross words so far). By default that is the evaluator's score,
+ * Scorer.evaluatorPoints: the main word alone, counting the premium of
+ * every square it covers. The evaluator deals a board holding one word and
+ * awards only plays that spell a word containing it, so a play that does
+ * not run along a word already on the board (two tiles side by side in its
+ * direction) is reported with 0 points. setAllPremiums(false) switches to
+ * real Scrabble scoring, Scorer.movePoints, with premiums only under new
+ * tiles and the cross words added. Before placing another
+ * tile the search bounds what the play could still reach: every tile on
+ * the line, the best remaining rack tiles on triple letters, every word
+ * multiplier left on the line and the best cross word per tile. Branches
+ * whose bound cannot beat the listener's threshold are cut off.
+ *
+ * A blank stands only for letters the rack has run out of: a play that
+ * spends a blank on a letter while a real tile of that letter stays on the
+ * rack scores no more than the same play with the real tile. Where a play
+ * holds both, the real tiles are moved to the squares where they score
+ * most before it is reported. So a blank fans out over the node's letters
+ * that the cross-checks allow and the rack lacks, not all 26.
+ *
+ * Anchors are searched best first by a rough estimate of the premiums
+ * around them, so good plays turn up early: that tightens the threshold
+ * sooner, and a search given a deadline (generate(..., deadlineNanos))
+ * that stops part way has already looked at the most promising squares.
+ */
+public class MoveGenerator {
+    /**
+     * Called once for every legal play found, except plays using a blank
+     * where a real tile of the rack would score at least as much.
+     */
+    public interface Listener {
+        /**
+         * @param word   word[start..start + length) spells the play
+         * @param row    starting row of the play
+         * @param col    starting column of the play
+         * @param isHorizontal orientation of the play
+         * @param tiles  number of tiles taken from the rack
+         * @param points score of the play, see setAllPremiums
+         */
+        void onMove(char[] word, int start, int length, int row, int col,
+                    boolean isHorizontal, int tiles, int points);
+
+        /**
+         * Plays scoring this much or less are of no interest and may be
+         * skipped; checked before every tile placed, so keep it cheap.
+         */
+        default int threshold() {
+            return Integer.MIN_VALUE;
+        }
+    }
+
+    static final int SIZE = 15;
+    static final int CENTER = SIZE / 2;
+    static final int ALL_LETTERS = (1 << 26) - 1;
+    private static final int BLANK = 26;
+    private static final int CLOCK_INTERVAL = 1 << 10;  // tiles placed between deadline checks
+    private static final int[] NO_CROSS_POINTS = new int[SIZE * SIZE];
+
+    static {
+        Arrays.fill(NO_CROSS_POINTS, -1);
+    }
+
+    private final Dawg gaddag;
+    private final CrossChecks checks;
+    private final Board own = new Board();  // follows the char[][] boards we are given
+
+    // state of the current search
+    private char[][] board;
+    private int lineAnchors;
+    private int lineTiles;
+    private boolean isOpening;  // the board is empty
+    private final int[] rack = new int[27];
+    private int rackLetters;  // bit code set while rack[code] > 0
+    private final char[] word = new char[SIZE];
+    private final char[] assigned = new char[SIZE];  // word with its blanks moved
+    private final char[] scored = new char[SIZE];    // assigned with '_' for its blanks
+    private Listener listener;
+    private boolean isHorizontal;
+    private int[] crossChecks;
+    private int[] crossSums;
+    private int[] crossPoints;  // crossSums where cross words score, else NO_CROSS_POINTS
+    private boolean allPremiums = true;
+    private int[] tileValues = new int[7];       // scratch for sorting the rack
+    private final int[] bestTiles = new int[8];  // bestTiles[n] = value of the n best rack tiles
+    // bounds for the current line
+    private int lineTileSum;
+    private int lineWordMultiplier;
+    private int lineCrossMax;
+    private int line;
+    private int anchor;
+    private int start;
+    private int tiles;
+    private int tilesLeft;
+    // anchors to search, see order()
+    private final int[] anchors = new int[2 * SIZE * SIZE];
+    private boolean hasDeadline;
+    private long deadline;
+    private boolean isClockOn;  // once the first anchor is done and a play is found
+    private boolean hasFound;
+    private int untilClockCheck;
+    private boolean isOutOfTime;
+    // counts of the current search, see MoveStats; only touched when it is enabled
+    private long statNodes;
+    private long statAnchors;
+    private long statCrossHits;
+    private long statCrossMisses;
+    private long statPruneCuts;
+    private long statCandidates;
+
+    public MoveGenerator(final Dawg gaddag, final Dawg dictionary) {
+        this(gaddag, dictionary, Hooks.build(dictionary), ShortWords.build(dictionary));
+    }
+
+    /** A generator sharing the tables of dictionary, which are read-only. */
+    public MoveGenerator(final Dawg gaddag, final Dawg dictionary, final Hooks hooks,
+                         final ShortWords shortWords) {
+        this.gaddag = gaddag;
+        this.checks = new CrossChecks(dictionary, hooks, shortWords);
+    }
+
+    /**
+     * Whether plays are scored by Scorer.evaluatorPoints (true, the
+     * default) or by Scorer.movePoints (false).
+     */
+    public void setAllPremiums(final boolean allPremiums) {
+        this.allPremiums = allPremiums;
+    }
+
+    /**
+     * Reports every legal play of availableLetters on board to listener.
+     * The board holds upper case letters, '_' for a blank already played,
+     * and ' ' for empty squares; the rack may hold letters A-Z of either
+     * case and '_' for blanks, anything else in it is ignored.
+     * @throws IllegalArgumentException if a square holds anything else (see Board)
+     */
+    public void generate(final char[][] board, final char[] availableLetters,
+                         final Listener listener) {
+        own.update(board);
+        generate(own, availableLetters, listener);
+    }
+
+    /**
+     * Like generate(char[][], ...), but gives up once System.nanoTime()
+     * passes deadlineNanos, having reported only the plays found so far.
+     * The clock is only looked at once the best-ranked anchor is searched
+     * and a play is found, so even a deadline that has already passed gets
+     * a play if there is one.
+     * @return true if the search finished before the deadline
+     */
+    public boolean generate(final char[][] board, final char[] availableLetters,
+                            final Listener listener, final long deadlineNanos) {
+        own.update(board);
+        return generate(own, availableLetters, listener, deadlineNanos);
+    }
+
+    /**
+     * Like generate(char[][], ...) for a caller that keeps its own Board,
+     * which saves bringing our own copy of the board up to date. When state
+     * is the board this generator searched last, the cross-checks redo
+     * only the lines it has changed since, without comparing any squares.
+     */
+    public void generate(final Board state, final char[] availableLetters,
+                         final Listener listener) {
+        hasDeadline = false;
+        search(state, availableLetters, listener);
+    }
+
+    /** Like generate(Board, ...) with a deadline, see generate(char[][], ..., long). */
+    public boolean generate(final Board state, final char[] availableLetters,
+                            final Listener listener, final long deadlineNanos) {
+        hasDeadline = true;
+        deadline = deadlineNanos;
+        untilClockCheck = 0;
+        search(state, availableLetters, listener);
+        return !isOutOfTime;
+    }
+
+    private void search(final Board state, final char[] availableLetters,
+                        final Listener listener) {
+        final long startNanos = MoveStats.ENABLED ? System.nanoTime() : 0;
+        final long startBytes = MoveStats.ENABLED ? MoveStats.allocatedBytes() : 0;
+        if (MoveStats.ENABLED) {
+            statNodes = statAnchors = statCrossHits = statCrossMisses = 0;
+            statPruneCuts = statCandidates = 0;
+        }
+        this.board = state.cells();
+        isOpening = state.isEmpty();
+        isOutOfTime = false;
+        isClockOn = false;
+        hasFound = false;
+        this.listener = listener;
+        Arrays.fill(rack, 0);
+        rackLetters = 0;
+        tilesLeft = 0;
+        if (tileValues.length < availableLetters.length) {
+            tileValues = new int[availableLetters.length];
+        }
+        final int[] values = tileValues;
+        final int count = availableLetters.length;
+        Arrays.fill(values, 0, count, 0);
+        for (final char c : availableLetters) {
+            final int code = Dawg.code(c);
+            if (c == '_') {
+                rack[BLANK]++;
+            } else if (code >= 0 && code < 26 && Character.isLetter(c)) {
+                rack[code]++;
+                rackLetters |= 1 << code;
+                values[tilesLeft] = Scorer.letterValue(Character.toUpperCase(c));
+            } else {
+                continue;
+            }
+            tilesLeft++;
+        }
+        Arrays.sort(values, 0, count);
+        for (int n = 1; n < bestTiles.length; n++) {
+            bestTiles[n] = bestTiles[n - 1] + (n <= count ? values[count - n] : 0);
+        }
+        checks.update(state);
+        final int anchorCount = order(state);
+        for (int i = anchorCount - 1; i >= 0 && !isOutOfTime; i--) {
+            setLine((anchors[i] & 1 << 8) == 0, anchors[i] >> 4 & 0xf, state);
+            anchor = anchors[i] & 0xf;
+            tiles = 0;
+            if (MoveStats.ENABLED) {
+                statAnchors++;
+            }
+            gen(anchor, gaddag.root(), 0, 1, 0);
+            isClockOn = hasFound;
+        }
+        this.board = null;
+        this.listener = null;
+        if (MoveStats.ENABLED) {
+            MoveStats.record(statNodes, statAnchors, statCrossHits, statCrossMisses,
+                             statPruneCuts, statCandidates, System.nanoTime() - startNanos,
+                             MoveStats.allocatedBytes() - startBytes);
+        }
+    }
+
+    /**
+     * Fills anchors[0..count) with every (direction, line, anchor) to
+     * search, packed as estimate << 9 | isVertical << 8 | line << 4 | anchor
+     * and sorted, so the most promising comes last.
+     */
+    private int order(final Board state) {
+        int count = 0;
+        for (int dir = 0; dir < 2; dir++) {
+            if (state.isEmpty() && dir == 1) {
+                break;  // on an empty board vertical plays mirror horizontal ones
+            }
+            for (int l = 0; l < SIZE; l++) {
+                setLine(dir == 0, l, state);
+                for (int pos = 0; pos < SIZE; pos++) {
+                    if ((lineAnchors & 1 << pos) != 0) {
+                        anchors[count++] = estimate(pos) << 9 | dir << 8 | l << 4 | pos;
+                    }
+                }
+            }
+        }
+        Arrays.sort(anchors, 0, count);
+        return count;
+    }
+
+    private void setLine(final boolean isHorizontal, final int line, final Board state) {
+        this.isHorizontal = isHorizontal;
+        this.line = line;
+        crossChecks = isHorizontal ? checks.across() : checks.down();
+        crossSums = isHorizontal ? checks.acrossSums() : checks.downSums();
+        crossPoints = allPremiums ? NO_CROSS_POINTS : crossSums;
+        lineAnchors = isHorizontal ? state.anchorsInRow(line) : state.anchorsInColumn(line);
+        lineTiles = isHorizontal ? state.row(line) : state.column(line);
+        boundLine();
+    }
+
+    /**
+     * Rough worth of the squares within a rack's reach of the anchor: the
+     * letter premiums, scaled by the word premiums, plus the tiles a play
+     * through them would take along. Only used to order the search.
+     */
+    private int estimate(final int anchor) {
+        int letters = 0;
+        int multiplier = 1;
+        for (int pos = Math.max(0, anchor - 3); pos <= Math.min(SIZE - 1, anchor + 3); pos++) {
+            final int sq = square(pos);
+            if (cell(pos) != ' ') {
+                letters += Scorer.letterValue(cell(pos));
+            } else {
+                letters += Scorer.letterMultiplier(sq) + Math.max(0, crossPoints[sq]);
+                multiplier *= Scorer.wordMultiplier(sq);
+            }
+        }
+        return letters * Math.min(multiplier, 9);
+    }
+
+    private int square(final int pos) {
+        return isHorizontal ? line * SIZE + pos : pos * SIZE + line;
+    }
+
+    private char cell(final int pos) {
+        return isHorizontal ? board[line][pos] : board[pos][line];
+    }
+
+    /** True if pos is off the board or an empty square. */
+    private boolean isOpen(final int pos) {
+        return pos < 0 || pos >= SIZE || cell(pos) == ' ';
+    }
+
+    /** Line-wide inputs of the bound, see the class comment. */
+    private void boundLine() {
+        lineTileSum = 0;
+        lineWordMultiplier = 1;
+        lineCrossMax = 0;
+        final int bestTile = bestTiles[1];
+        for (int pos = 0; pos < SIZE; pos++) {
+            final int sq = square(pos);
+            if (cell(pos) != ' ') {
+                lineTileSum += tileValue(pos);
+                if (allPremiums) {
+                    lineWordMultiplier *= Scorer.wordMultiplier(sq);
+                }
+                continue;
+            }
+            lineWordMultiplier *= Scorer.wordMultiplier(sq);
+            if (crossPoints[sq] >= 0) {
+                lineCrossMax = Math.max(lineCrossMax, (crossPoints[sq] + bestTile
+                    * Scorer.letterMultiplier(sq)) * Scorer.wordMultiplier(sq));
+            }
+        }
+    }
+
+    /** What the tile on pos adds to the main word's letter sum. */
+    private int tileValue(final int pos) {
+        final int value = Scorer.letterValue(cell(pos));
+        return allPremiums ? value * Scorer.letterMultiplier(square(pos)) : value;
+    }
+
+    /** What the tile on pos multiplies the main word by. */
+    private int tileMultiplier(final int pos) {
+        return allPremiums ? Scorer.wordMultiplier(square(pos)) : 1;
+    }
+
+    /** Most any play extending the current one could score. */
+    private int bound(final int main, final int multiplier, final int cross) {
+        final int more = Math.min(tilesLeft, bestTiles.length - 1);
+        return (main + lineTileSum + 3 * bestTiles[more]) * multiplier * lineWordMultiplier
+            + cross + more * lineCrossMax;
+    }
+
+    /**
+     * Places a letter on pos, coming from node. main is the letter sum of
+     * the main word so far, multiplier its word multiplier and cross the
+     * points of the cross words formed so far.
+     */
+    private void gen(final int pos, final int node, final int main, final int multiplier,
+                     final int cross) {
+        if (MoveStats.ENABLED) {
+            statNodes++;
+        }
+        final char tile = cell(pos);
+        if (tile != ' ') {
+            final int value = tileValue(pos);
+            final int tileMultiplier = tileMultiplier(pos);
+            if (tile == '_') {
+                for (int e = node; e != Dawg.NO_EDGE; e = gaddag.nextEdge(e)) {
+                    final char letter = gaddag.letter(e);
+                    if (letter != Dawg.SEPARATOR) {
+                        goOn(pos, Character.toLowerCase(letter), e, main,
+                             multiplier * tileMultiplier, cross);
+                    }
+                }
+            } else {
+                final int e = gaddag.edge(node, tile);
+                if (e != Dawg.NO_EDGE) {
+                    goOn(pos, tile, e, main + value, multiplier * tileMultiplier, cross);
+                }
+            }
+            return;
+        }
+        if (tilesLeft == 0) {
+            return;
+        }
+        if (bound(main, multiplier, cross) <= listener.threshold()) {
+            if (MoveStats.ENABLED) {
+                statPruneCuts++;
+            }
+            return;
+        }
+        if (isPastDeadline()) {
+            return;
+        }
+        final int sq = square(pos);
+        final int allowed = crossChecks[sq] & (rack[BLANK] > 0 ? ALL_LETTERS : rackLetters);
+        if (allowed == 0) {
+            return;
+        }
+        final int letterMultiplier = Scorer.letterMultiplier(sq);
+        final int wordMultiplier = Scorer.wordMultiplier(sq);
+        final int crossSum = crossPoints[sq];
+        for (int e = node; e != Dawg.NO_EDGE; e = gaddag.nextEdge(e)) {
+            final char letter = gaddag.letter(e);
+            final int code = Dawg.code(letter);
+            if (MoveStats.ENABLED && letter != Dawg.SEPARATOR && crossSums[sq] >= 0) {
+                // only squares with a cross word are really checked
+                if ((crossChecks[sq] & 1 << code) != 0) {
+                    statCrossHits++;
+                } else {
+                    statCrossMisses++;
+                }
+            }
+            if (letter == Dawg.SEPARATOR || (allowed & 1 << code) == 0) {
+                continue;
+            }
+            if (rack[code] > 0) {
+                final int value = Scorer.letterValue(letter) * letterMultiplier;
+                take(code);
+                goOn(pos, letter, e, main + value, multiplier * wordMultiplier,
+                     crossSum < 0 ? cross : cross + (crossSum + value) * wordMultiplier);
+                putBack(code);
+            } else if (rack[BLANK] > 0) {
+                take(BLANK);
+                goOn(pos, Character.toLowerCase(letter), e, main, multiplier * wordMultiplier,
+                     crossSum < 0 ? cross : cross + crossSum * wordMultiplier);
+                putBack(BLANK);
+            }
+        }
+    }
+
+    /** Looks at the clock once every CLOCK_INTERVAL calls, once it is on. */
+    private boolean isPastDeadline() {
+        if (hasDeadline && isClockOn && !isOutOfTime && --untilClockCheck <= 0) {
+            untilClockCheck = CLOCK_INTERVAL;
+            isOutOfTime = System.nanoTime() - deadline >= 0;
+        }
+        return isOutOfTime;
+    }
+
+    private void take(final int code) {
+        if (--rack[code] == 0 && code != BLANK) {
+            rackLetters &= ~(1 << code);
+        }
+        tilesLeft--;
+        tiles++;
+    }
+
+    private void putBack(final int code) {
+        if (rack[code]++ == 0 && code != BLANK) {
+            rackLetters |= 1 << code;
+        }
+        tilesLeft++;
+        tiles--;
+    }
+
+    private void goOn(final int pos, final char letter, final int e, final int main,
+                      final int multiplier, final int cross) {
+        word[pos] = letter;
+        final int next = gaddag.child(e);
+        final int points = main * multiplier + cross;
+        if (pos <= anchor) {
+            // still spelling the reversed prefix leftwards
+            if (gaddag.isWordEnd(e) && isOpen(pos - 1) && isOpen(anchor + 1)) {
+                report(pos, anchor, points);
+            }
+            if (next == Dawg.LEAF) {
+                return;
+            }
+            if (pos > 0 && (lineAnchors & 1 << (pos - 1)) == 0) {
+                gen(pos - 1, next, main, multiplier, cross);
+            }
+            final int separator = gaddag.edge(next, Dawg.SEPARATOR);
+            if (separator != Dawg.NO_EDGE && isOpen(pos - 1) && anchor + 1 < SIZE) {
+                start = pos;
+                gen(anchor + 1, gaddag.child(separator), main, multiplier, cross);
+            }
+        } else {
+            if (gaddag.isWordEnd(e) && isOpen(pos + 1)) {
+                report(start, pos, points);
+            }
+            if (next != Dawg.LEAF && pos + 1 < SIZE) {
+                gen(pos + 1, next, main, multiplier, cross);
+            }
+        }
+    }
+
+    private void report(final int first, final int last, final int points) {
+        if (last == first) {
+            return;  // single letters are found by the other orientation
+        }
+        hasFound = true;
+        if (MoveStats.ENABLED) {
+            statCandidates++;
+        }
+        final int row = isHorizontal ? line : first;
+        final int col = isHorizontal ? first : line;
+        final int length = last - first + 1;
+        if (allPremiums && !isOpening && !isAlongWord(first, last)) {
+            listener.onMove(word, first, length, row, col, isHorizontal, tiles, 0);
+            return;
+        }
+        if (hasBlankAndTwin(first, last)) {
+            System.arraycopy(word, first, assigned, first, length);
+            assignBlanks(first, last);
+            for (int pos = first; pos <= last; pos++) {
+                scored[pos] = Character.isLowerCase(assigned[pos]) ? '_' : assigned[pos];
+            }
+            listener.onMove(assigned, first, length, row, col, isHorizontal, tiles, allPremiums
+                            ? Scorer.evaluatorPoints(board, scored, first, length, row, col,
+                                                     isHorizontal)
+                            : Scorer.movePoints(board, scored, first, length, row, col,
+                                                isHorizontal));
+            return;
+        }
+        listener.onMove(word, first, last - first + 1, row, col, isHorizontal, tiles, points);
+    }
+
+    /** True if word[first..last] takes in two neighbouring tiles of the board. */
+    private boolean isAlongWord(final int first, final int last) {
+        final int covered = lineTiles & (2 << last) - (1 << first);
+        return (covered & covered >> 1) != 0;
+    }
+
+    /** True if the play places a blank and a real tile of the same letter. */
+    private boolean hasBlankAndTwin(final int first, final int last) {
+        int blanks = 0;
+        int reals = 0;
+        for (int pos = first; pos <= last; pos++) {
+            if (cell(pos) == ' ') {
+                final char c = word[pos];
+                if (Character.isLowerCase(c)) {
+                    blanks |= 1 << (c - 'a');
+                } else {
+                    reals |= 1 << (c - 'A');
+                }
+            }
+        }
+        return (blanks & reals) != 0;
+    }
+
+    /**
+     * Rewrites assigned[first..last] so that, for each letter played both
+     * as a blank and as a real tile, the real tiles sit on the squares
+     * where a point of face value is worth most.
+     */
+    private void assignBlanks(final int first, final int last) {
+        int mainMultiplier = 1;
+        for (int pos = first; pos <= last; pos++) {
+            mainMultiplier *= cell(pos) == ' ' ? Scorer.wordMultiplier(square(pos)) : tileMultiplier(pos);
+        }
+        for (int pos = first; pos <= last; pos++) {
+            if (cell(pos) != ' ' || !Character.isUpperCase(assigned[pos])) {
+                continue;
+            }
+            // the real tile moves to the best square holding a blank of its letter
+            final char blank = Character.toLowerCase(assigned[pos]);
+            int best = pos;
+            for (int other = first; other <= last; other++) {
+                if (cell(other) == ' ' && assigned[other] == blank
+                    && worth(other, mainMultiplier) > worth(best, mainMultiplier)) {
+                    best = other;
+                }
+            }
+            if (best != pos) {
+                assigned[best] = assigned[pos];
+                assigned[pos] = blank;
+                pos = first - 1;  // start over, the swap may free a better square
+            }
+        }
+    }
+
+    /** Points one point of face value placed on pos adds to the play. */
+    private int worth(final int pos, final int mainMultiplier) {
+        final int sq = square(pos);
+        final int crossMultiplier = crossPoints[sq] >= 0 ? Scorer.wordMultiplier(sq) : 0;
+        return Scorer.letterMultiplier(sq) * (mainMultiplier + crossMultiplier);
+    }
+}
@@ -0,0 +1,220 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counters and a latency histogram for MoveGenerator searches.
+ *
+ * Off unless the JVM runs with -Dscrabble.stats=true. ENABLED is a static
+ * final constant, so with statistics off every "if (MoveStats.ENABLED)"
+ * in the generator is dead code the JIT removes: the instrumentation can
+ * stay compiled in. When on, a generator counts in plain fields of its
+ * own and adds them here once per search, so the hot path never touches
+ * shared memory.
+ *
+ * The totals are published over JMX as scrabble:type=MoveStats and, with
+ * -Dscrabble.stats.csv=file, written to file as CSV when the JVM exits.
+ */
+public final class MoveStats implements MoveStatsMBean {
+    public static final boolean ENABLED = Boolean.getBoolean("scrabble.stats");
+    static final String OBJECT_NAME = "scrabble:type=MoveStats";
+    static final MoveStats INSTANCE = new MoveStats();
+
+    private static final com.sun.management.ThreadMXBean ALLOCATION = allocationBean();
+
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder anchors = new LongAdder();
+    private final LongAdder crossHits = new LongAdder();
+    private final LongAdder crossMisses = new LongAdder();
+    private final LongAdder pruneCuts = new LongAdder();
+    private final LongAdder candidates = new LongAdder();
+    private final LongAdder allocated = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    static {
+        if (ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+            } catch (JMException e) {
+                e.printStackTrace();
+            }
+            final String csv = System.getProperty("scrabble.stats.csv");
+            if (csv != null) {
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        INSTANCE.dumpCsv(csv);
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                }));
+            }
+        }
+    }
+
+    private MoveStats() {
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            final com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) bean;
+            if (sun.isThreadAllocatedMemorySupported() && sun.isThreadAllocatedMemoryEnabled()) {
+                return sun;
+            }
+        }
+        return null;
+    }
+
+    /** Bytes the current thread has allocated so far, -1 if unknown. */
+    static long allocatedBytes() {
+        return ALLOCATION == null ? -1 : ALLOCATION.getCurrentThreadAllocatedBytes();
+    }
+
+    /** Adds the counts of one search. */
+    static void record(final long nodes, final long anchors, final long crossHits,
+                       final long crossMisses, final long pruneCuts, final long candidates,
+                       final long nanos, final long bytes) {
+        final MoveStats s = INSTANCE;
+        s.moves.increment();
+        s.nodes.add(nodes);
+        s.anchors.add(anchors);
+        s.crossHits.add(crossHits);
+        s.crossMisses.add(crossMisses);
+        s.pruneCuts.add(pruneCuts);
+        s.candidates.add(candidates);
+        s.allocated.add(bytes);
+        s.latency.record(nanos);
+    }
+
+    public static MoveStats get() {
+        return INSTANCE;
+    }
+
+    @Override
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    @Override
+    public long getNodesVisited() {
+        return nodes.sum();
+    }
+
+    @Override
+    public long getAnchorsTried() {
+        return anchors.sum();
+    }
+
+    @Override
+    public long getCrossCheckHits() {
+        return crossHits.sum();
+    }
+
+    @Override
+    public long getCrossCheckMisses() {
+        return crossMisses.sum();
+    }
+
+    @Override
+    public long getPruneCuts() {
+        return pruneCuts.sum();
+    }
+
+    @Override
+    public long getCandidatesScored() {
+        return candidates.sum();
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        return ALLOCATION == null ? -1 : allocated.sum();
+    }
+
+    @Override
+    public double getAllocatedBytesPerMove() {
+        final long n = getMoves();
+        return ALLOCATION == null || n == 0 ? -1 : (double) allocated.sum() / n;
+    }
+
+    @Override
+    public long getLatencyP50Nanos() {
+        return latency.valueAt(0.5);
+    }
+
+    @Override
+    public long getLatencyP99Nanos() {
+        return latency.valueAt(0.99);
+    }
+
+    @Override
+    public long getLatencyP999Nanos() {
+        return latency.valueAt(0.999);
+    }
+
+    @Override
+    public long getLatencyMaxNanos() {
+        return latency.valueAt(1);
+    }
+
+    @Override
+    public void reset() {
+        moves.reset();
+        nodes.reset();
+        anchors.reset();
+        crossHits.reset();
+        crossMisses.reset();
+        pruneCuts.reset();
+        candidates.reset();
+        allocated.reset();
+        latency.reset();
+    }
+
+    /**
+     * Writes the totals as "metric,value" rows, then the latency histogram
+     * as "latency_ns_le,N,count" rows, one per non-empty bucket.
+     */
+    @Override
+    public void dumpCsv(final String file) throws IOException {
+        try (PrintWriter out = new PrintWriter(file, "UTF-8")) {
+            out.println("metric,value");
+            out.println("moves," + getMoves());
+            out.println("nodes_visited," + getNodesVisited());
+            out.println("anchors_tried," + getAnchorsTried());
+            out.println("cross_check_hits," + getCrossCheckHits());
+            out.println("cross_check_misses," + getCrossCheckMisses());
+            out.println("prune_cuts," + getPruneCuts());
+            out.println("candidates_scored," + getCandidatesScored());
+            out.println("allocated_bytes," + getAllocatedBytes());
+            out.println("allocated_bytes_per_move," + getAllocatedBytesPerMove());
+            out.println("latency_p50_ns," + getLatencyP50Nanos());
+            out.println("latency_p99_ns," + getLatencyP99Nanos());
+            out.println("latency_p999_ns," + getLatencyP999Nanos());
+            out.println("latency_max_ns," + getLatencyMaxNanos());
+            latency.forEach((highest, count) -> out.println("latency_ns_le," + highest + "," + count));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d moves, per move: %.0f nodes, %.1f anchors, %.0f cross-check hits,"
+                             + " %.0f misses, %.0f prune cuts, %.0f candidates,"
+                             + " %.0f bytes allocated; latency p50 %.2f ms,"
+                             + " p99 %.2f ms, p99.9 %.2f ms",
+                             getMoves(), perMove(getNodesVisited()), perMove(getAnchorsTried()),
+                             perMove(getCrossCheckHits()), perMove(getCrossCheckMisses()),
+                             perMove(getPruneCuts()), perMove(getCandidatesScored()),
+                             getAllocatedBytesPerMove(), getLatencyP50Nanos() / 1e6,
+                             getLatencyP99Nanos() / 1e6, getLatencyP999Nanos() / 1e6);
+    }
+
+    private double perMove(final long total) {
+        return getMoves() == 0 ? 0 : (double) total / getMoves();
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * Management view of MoveStats, registered as scrabble:type=MoveStats
+ * when statistics are enabled. Counts are totals since start or reset.
+ */
+public interface MoveStatsMBean {
+    long getMoves();
+
+    long getNodesVisited();
+
+    long getAnchorsTried();
+
+    long getCrossCheckHits();
+
+    long getCrossCheckMisses();
+
+    long getPruneCuts();
+
+    long getCandidatesScored();
+
+    /** Bytes allocated by searching threads while searching, -1 if the JVM cannot tell. */
+    long getAllocatedBytes();
+
+    double getAllocatedBytesPerMove();
+
+    long getLatencyP50Nanos();
+
+    long getLatencyP99Nanos();
+
+    long getLatencyP999Nanos();
+
+    long getLatencyMaxNanos();
+
+    void reset();
+
+    void dumpCsv(String file) throws java.io.IOException;
+}
@@ -0,0 +1,163 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Dictionary words of 2 to MAX_LENGTH letters indexed by what letter they
+ * have where, for queries like "five letters, A second and E last".
+ *
+ * The words of each length are numbered in dictionary order, and for every
+ * length, position and letter one bitset marks the words with that letter
+ * there. A pattern is answered by ANDing the bitsets of its fixed letters a
+ * long at a time, so 64 words are checked with every few operations and
+ * no graph is walked. Word ids run on across lengths, see word(id).
+ */
+public final class PatternIndex {
+    /** The longest line on the board. */
+    static final int MAX_LENGTH = MoveGenerator.SIZE;
+    /** Stands for any letter in a pattern. */
+    public static final char ANY = '?';
+
+    private final int[] firstIds;   // by length: id of its first word, one more entry at the end
+    private final byte[][] codes;   // by length: letter codes of its words, one after another
+    private final long[][] bits;    // by (length * MAX_LENGTH + position) * 26 + letter
+
+    private PatternIndex(final int[] firstIds, final byte[][] codes, final long[][] bits) {
+        this.firstIds = firstIds;
+        this.codes = codes;
+        this.bits = bits;
+    }
+
+    /** Indexes every word of 2 to MAX_LENGTH letters in dictionary. */
+    static PatternIndex build(final Dawg dictionary) {
+        final byte[][] codes = new byte[MAX_LENGTH + 1][64];
+        final int[] counts = new int[MAX_LENGTH + 1];
+        collect(dictionary, dictionary.root(), new byte[MAX_LENGTH], 0, codes, counts);
+
+        final int[] firstIds = new int[MAX_LENGTH + 2];
+        final long[][] bits = new long[(MAX_LENGTH + 1) * MAX_LENGTH * 26][];
+        for (int length = 0; length <= MAX_LENGTH; length++) {
+            final int count = counts[length];
+            codes[length] = Arrays.copyOf(codes[length], count * length);
+            firstIds[length + 1] = firstIds[length] + count;
+            final int longs = (count + 63) >>> 6;
+            for (int i = 0; i < length * 26; i++) {
+                bits[length * MAX_LENGTH * 26 + i] = new long[longs];
+            }
+            for (int w = 0; w < count; w++) {
+                for (int position = 0; position < length; position++) {
+                    final int letter = codes[length][w * length + position];
+                    bits[(length * MAX_LENGTH + position) * 26 + letter][w >>> 6] |= 1L << w;
+                }
+            }
+        }
+        return new PatternIndex(firstIds, codes, bits);
+    }
+
+    private static void collect(final Dawg dictionary, final int node, final byte[] prefix,
+                                final int depth, final byte[][] codes, final int[] counts) {
+        if (node == Dawg.LEAF || depth == MAX_LENGTH) {
+            return;
+        }
+        for (int e = node; e != Dawg.NO_EDGE; e = dictionary.nextEdge(e)) {
+            prefix[depth] = (byte) Dawg.code(dictionary.letter(e));
+            final int length = depth + 1;
+            if (length >= 2 && dictionary.isWordEnd(e)) {
+                final int end = (counts[length] + 1) * length;
+                if (end > codes[length].length) {
+                    codes[length] = Arrays.copyOf(codes[length], Math.max(end, codes[length].length * 2));
+                }
+                System.arraycopy(prefix, 0, codes[length], counts[length]++ * length, length);
+            }
+            collect(dictionary, dictionary.child(e), prefix, length, codes, counts);
+        }
+    }
+
+    /** Number of words indexed. */
+    public int size() {
+        return firstIds[MAX_LENGTH + 1];
+    }
+
+    /** The word with the given id. */
+    public String word(final int id) {
+        if (id < 0 || id >= size()) {
+            throw new IndexOutOfBoundsException("no word " + id);
+        }
+        int length = 2;
+        while (id >= firstIds[length + 1]) {
+            length++;
+        }
+        final int start = (id - firstIds[length]) * length;
+        final char[] word = new char[length];
+        for (int i = 0; i < length; i++) {
+            word[i] = (char) ('A' + codes[length][start + i]);
+        }
+        return new String(word);
+    }
+
+    /**
+     * The ids, in dictionary order, of the words that fit pattern: as long
+     * as pattern, with its letters (either case) where it has them and any
+     * letter where it has ANY. A pattern with anything else fits nothing.
+     */
+    public PrimitiveIterator.OfInt query(final CharSequence pattern) {
+        final int length = pattern.length();
+        if (length < 2 || length > MAX_LENGTH) {
+            return new Matches(new long[0][], 0, 0);
+        }
+        final long[][] lists = new long[length][];
+        int fixed = 0;
+        for (int position = 0; position < length; position++) {
+            final char c = pattern.charAt(position);
+            if (c == ANY) {
+                continue;
+            }
+            final int letter = Dawg.code(c);
+            if (letter < 0 || letter >= 26) {
+                return new Matches(new long[0][], 0, 0);
+            }
+            lists[fixed++] = bits[(length * MAX_LENGTH + position) * 26 + letter];
+        }
+        final int count = firstIds[length + 1] - firstIds[length];
+        return new Matches(Arrays.copyOf(lists, fixed), count, firstIds[length]);
+    }
+
+    /** Walks the AND of some bitsets, one long at a time as it is asked for. */
+    private static final class Matches implements PrimitiveIterator.OfInt {
+        private final long[][] lists;
+        private final int count;
+        private final int firstId;
+        private int index = -1;  // long of the bitsets in current
+        private long current = 0;
+
+        Matches(final long[][] lists, final int count, final int firstId) {
+            this.lists = lists;
+            this.count = count;
+            this.firstId = firstId;
+        }
+
+        @Override
+        public boolean hasNext() {
+            final int longs = (count + 63) >>> 6;
+            while (current == 0 && index + 1 < longs) {
+                index++;
+                long and = index + 1 < longs || (count & 63) == 0 ? -1L : (1L << count) - 1;
+                for (int i = 0; i < lists.length && and != 0; i++) {
+                    and &= lists[i][index];
+                }
+                current = and;
+            }
+            return current != 0;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final int bit = Long.numberOfTrailingZeros(current);
+            current &= current - 1;
+            return firstId + (index << 6) + bit;
+        }
+    }
+}
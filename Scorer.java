@@ -0,0 +1,162 @@
+/**
+ * Table-driven Scrabble scoring shared by the player and the evaluator.
+ *
+ * PREMIUMS holds, for square row * 15 + col, the letter multiplier in the
+ * low two bits and the word multiplier in the next two. LETTER_VALUES is
+ * indexed by the character itself: letters of either case carry their
+ * tile value, as the evaluator deals racks in lower case and scores the
+ * words it is given as they are; a blank, '_', is worth nothing. Nothing
+ * here allocates.
+ */
+public final class Scorer {
+    static final int SIZE = 15;
+
+    // d/t = double/triple letter, D/T = double/triple word
+    private static final String[] LAYOUT = {
+        "T..d...T...d..T",
+        ".D...t...t...D.",
+        "..D...d.d...D..",
+        "d..D...d...D..d",
+        "....D.....D....",
+        ".t...t...t...t.",
+        "..d...d.d...d..",
+        "T..d.......d..T",
+        "..d...d.d...d..",
+        ".t...t...t...t.",
+        "....D.....D....",
+        "d..D...d...D..d",
+        "..D...d.d...D..",
+        ".D...t...t...D.",
+        "T..d...T...d..T",
+    };
+    // points of 'A' to 'Z'
+    private static final int[] VALUES =
+    {1, 3, 3, 2, 1, 4, 2, 4, 1, 8, 5, 1, 3,
+     1, 1, 3, 10, 1, 1, 1, 1, 4, 4, 8, 4, 10};
+
+    static final byte[] PREMIUMS = new byte[SIZE * SIZE];
+    static final int[] LETTER_VALUES = new int[128];
+
+    static {
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                final char c = LAYOUT[row].charAt(col);
+                final int letter = c == 'd' ? 2 : c == 't' ? 3 : 1;
+                final int word = c == 'D' ? 2 : c == 'T' ? 3 : 1;
+                PREMIUMS[row * SIZE + col] = (byte) (letter | word << 2);
+            }
+        }
+        for (int i = 0; i < VALUES.length; i++) {
+            LETTER_VALUES['A' + i] = VALUES[i];
+            LETTER_VALUES['a' + i] = VALUES[i];
+        }
+    }
+
+    private Scorer() {
+    }
+
+    public static int letterMultiplier(final int square) {
+        return PREMIUMS[square] & 3;
+    }
+
+    public static int wordMultiplier(final int square) {
+        return PREMIUMS[square] >> 2;
+    }
+
+    public static int letterValue(final char c) {
+        return c < 128 ? LETTER_VALUES[c] : 0;
+    }
+
+    /**
+     * Points of word laid from (row, col) with every square's premium
+     * counted, the way the evaluator scores a single word.
+     */
+    public static int wordPoints(final CharSequence word, final int row, final int col,
+                                 final boolean isHorizontal) {
+        final int step = isHorizontal ? 1 : SIZE;
+        int square = row * SIZE + col;
+        int points = 0;
+        int multiplier = 1;
+        for (int i = 0; i < word.length(); i++, square += step) {
+            points += letterValue(word.charAt(i)) * letterMultiplier(square);
+            multiplier *= wordMultiplier(square);
+        }
+        return points * multiplier;
+    }
+
+    /**
+     * Points of placing word[start..start + length) on board from
+     * (row, col): the main word plus every cross word formed by a new tile,
+     * with premiums counted only under newly placed tiles. Blanks in word
+     * are '_'.
+     */
+    public static int movePoints(final char[][] board, final char[] word, final int start,
+                                 final int length, final int row, final int col,
+                                 final boolean isHorizontal) {
+        final int dr = isHorizontal ? 0 : 1;
+        final int dc = isHorizontal ? 1 : 0;
+        int main = 0;
+        int mainMultiplier = 1;
+        int cross = 0;
+        for (int i = 0; i < length; i++) {
+            final int r = row + i * dr;
+            final int c = col + i * dc;
+            final char letter = word[start + i];
+            if (board[r][c] != ' ') {
+                main += letterValue(board[r][c]);
+                continue;
+            }
+            final int square = r * SIZE + c;
+            final int value = letterValue(letter) * letterMultiplier(square);
+            main += value;
+            mainMultiplier *= wordMultiplier(square);
+            // the cross word runs perpendicular, swap the steps
+            final int crossSum = crossSum(board, r, c, dc, dr);
+            if (crossSum >= 0) {
+                cross += (crossSum + value) * wordMultiplier(square);
+            }
+        }
+        return main * mainMultiplier + cross;
+    }
+
+    /**
+     * Points the evaluator gives the same play: the main word alone, with
+     * the premium of every square it covers, tiles already on the board
+     * included, as wordPoints counts them. Cross words score nothing there.
+     */
+    public static int evaluatorPoints(final char[][] board, final char[] word, final int start,
+                                      final int length, final int row, final int col,
+                                      final boolean isHorizontal) {
+        final int step = isHorizontal ? 1 : SIZE;
+        int square = row * SIZE + col;
+        int points = 0;
+        int multiplier = 1;
+        for (int i = 0; i < length; i++, square += step) {
+            final char tile = board[square / SIZE][square % SIZE];
+            points += letterValue(tile == ' ' ? word[start + i] : tile) * letterMultiplier(square);
+            multiplier *= wordMultiplier(square);
+        }
+        return points * multiplier;
+    }
+
+    /**
+     * Face value of the tiles touching (row, col) in direction (dr, dc) on
+     * both sides, or -1 if there are none.
+     */
+    static int crossSum(final char[][] board, final int row, final int col,
+                        final int dr, final int dc) {
+        int sum = 0;
+        boolean isTouching = false;
+        for (int r = row - dr, c = col - dc; r >= 0 && c >= 0 && board[r][c] != ' ';
+             r -= dr, c -= dc) {
+            sum += letterValue(board[r][c]);
+            isTouching = true;
+        }
+        for (int r = row + dr, c = col + dc; r < SIZE && c < SIZE && board[r][c] != ' ';
+             r += dr, c += dc) {
+            sum += letterValue(board[r][c]);
+            isTouching = true;
+        }
+        return isTouching ? sum : -1;
+    }
+}
@@ -12,33 +12,45 @@
 
 */
 
-import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 
 public class ScrabblePlayer
 {
-    Trie tree = new Trie();
+    // the dictionary is shared by every player reading the same file,
+    //    see Lexicon; so is a pool of search scratch space, borrowed for
+    //    each search
+    final Lexicon lexicon;
+    // true to rank plays by real Scrabble scoring (Scorer.movePoints, premiums
+    //    only under new tiles) instead of the evaluator's (Scorer.evaluatorPoints)
+    final boolean scrabbleScoring;
+    // for getRackWords and getPatternWords only, each built on the first
+    //    call; the search never uses them, so they are kept here rather
+    //    than in the shared lexicon, and go with the player
+    private volatile AnagramIndex anagrams;
+    private volatile PatternIndex patterns;
     // initialize ScrabblePlayer with a file of English words
     public ScrabblePlayer(String wordFile)
     
     {
-        
-        final File inputFile = new File(wordFile);
-        Scanner inputData;
+        this(wordFile, false);
+    }
+
+    // the same, choosing how plays are scored, see scrabbleScoring
+    public ScrabblePlayer(String wordFile, boolean scrabbleScoring)
+    {
+        this.scrabbleScoring = scrabbleScoring;
+        Lexicon loaded = null;
         try {
-            inputData = new Scanner(inputFile);
-            while (inputData.hasNextLine()) {
-                final String str = inputData.nextLine();
-                tree.insert(str);
-            }
-            tree.compress();
+            loaded = Lexicon.load(wordFile);
         } catch (FileNotFoundException e) {
             // TODO Auto-generated catch block
             e.printStackTrace();
         }
-
+        lexicon = loaded;
     }
 
     // based on the board and available letters, 
@@ -58,12 +70,291 @@ public class ScrabblePlayer
 
     public ScrabbleWord getScrabbleWord(char[][] board, char[] availableLetters)
     {
+        final Lexicon.Search search = borrow();
+        try {
+            search.top.reset(1);
+            search.generator.generate(board, availableLetters, search.top);
+            final ScrabbleWord best = search.top.best();
+            return best == null ? new ScrabbleWord() : asDealt(best, board, availableLetters);
+        } finally {
+            lexicon.giveBack(search);
+        }
+    }
+
+    // the same with a time limit: deadlineNanos is a System.nanoTime() value,
+    //    e.g. System.nanoTime() + 50_000_000 for 50 ms from now. Promising
+    //    squares are searched first; when the deadline passes the best play
+    //    found so far is returned. The most promising square is always
+    //    searched, and more until a play turns up, so a deadline that has
+    //    passed still gets a play if there is one
+    public ScrabbleWord getScrabbleWord(char[][] board, char[] availableLetters,
+                                        long deadlineNanos)
+    {
+        final Lexicon.Search search = borrow();
+        try {
+            search.top.reset(1);
+            search.generator.generate(board, availableLetters, search.top, deadlineNanos);
+            final ScrabbleWord best = search.top.best();
+            return best == null ? new ScrabbleWord() : asDealt(best, board, availableLetters);
+        } finally {
+            lexicon.giveBack(search);
+        }
+    }
+
+    // the k highest scoring plays, best first (see scrabbleScoring);
+    //    fewer if there are not that many legal plays
+    public List<ScrabbleWord> getTopScrabbleWords(char[][] board, char[] availableLetters, int k)
+    {
+        final Lexicon.Search search = borrow();
+        try {
+            search.top.reset(k);
+            search.generator.generate(board, availableLetters, search.top);
+            return asDealt(search.top.toScrabbleWords(), board, availableLetters);
+        } finally {
+            lexicon.giveBack(search);
+        }
+    }
+
+    // the same for a caller that keeps a Board up to date with place(),
+    //    so the board is not rescanned on every call
+    public ScrabbleWord getScrabbleWord(Board board, char[] availableLetters)
+    {
+        final Lexicon.Search search = borrow();
+        try {
+            search.top.reset(1);
+            search.generator.generate(board, availableLetters, search.top);
+            final ScrabbleWord best = search.top.best();
+            return best == null ? new ScrabbleWord()
+                : asDealt(best, board.cells(), availableLetters);
+        } finally {
+            lexicon.giveBack(search);
+        }
+    }
+
+    public List<ScrabbleWord> getTopScrabbleWords(Board board, char[] availableLetters, int k)
+    {
+        final Lexicon.Search search = borrow();
+        try {
+            search.top.reset(k);
+            search.generator.generate(board, availableLetters, search.top);
+            return asDealt(search.top.toScrabbleWords(), board.cells(), availableLetters);
+        } finally {
+            lexicon.giveBack(search);
+        }
+    }
+
+    // play with the tiles it takes from the rack written in the case the
+    //    rack holds them (board tiles and blanks stay as they are): the
+    //    evaluator deals lower case racks and checks a play's new letters
+    //    against its rack as they are
+    private static ScrabbleWord asDealt(ScrabbleWord play, char[][] board, char[] rack)
+    {
+        int lower = 0, upper = 0;
+        for (char c : rack) {
+            if (c >= 'a' && c <= 'z')
+                lower |= 1 << (c - 'a');
+            else if (c >= 'A' && c <= 'Z')
+                upper |= 1 << (c - 'A');
+        }
+        final int lowerOnly = lower & ~upper;
+        if (lowerOnly == 0)
+            return play;
+        final char[] word = play.getScrabbleWord().toCharArray();
+        final boolean isHorizontal = play.getOrientation() == 'h';
+        for (int i = 0; i < word.length; i++) {
+            final int row = play.getStartRow() + (isHorizontal ? 0 : i);
+            final int col = play.getStartColumn() + (isHorizontal ? i : 0);
+            final char c = word[i];
+            if (board[row][col] == ' ' && c >= 'A' && c <= 'Z' && (lowerOnly & 1 << (c - 'A')) != 0)
+                word[i] = Character.toLowerCase(c);
+        }
+        return new ScrabbleWord(new String(word), play.getStartRow(), play.getStartColumn(),
+                                (char) play.getOrientation());
+    }
+
+    private static List<ScrabbleWord> asDealt(List<ScrabbleWord> plays, char[][] board, char[] rack)
+    {
+        plays.replaceAll(play -> asDealt(play, board, rack));
+        return plays;
+    }
+
+    // a search from the lexicon's pool, scoring the way this player does;
+    //    give it back with lexicon.giveBack when done
+    private Lexicon.Search borrow()
+    {
+        final Lexicon.Search search = lexicon.borrow();
+        search.generator.setAllPremiums(!scrabbleScoring);
+        return search;
+    }
+
+    // many positions at once: play i is for boards.get(i) and racks.get(i)
+    //    (an empty ScrabbleWord where there is none). Positions on the same
+    //    board are searched back to back, so the cross-checks worked out for
+    //    the first are reused for the rest instead of being recomputed
+    public List<ScrabbleWord> getScrabbleWords(List<char[][]> boards, List<char[]> racks)
+    {
+        return getScrabbleWords(boards, racks, null);
+    }
+
+    // the same, split across the threads of pool (null for this thread);
+    //    each thread takes whole groups of positions on the same board
+    public List<ScrabbleWord> getScrabbleWords(List<char[][]> boards, List<char[]> racks,
+                                               ForkJoinPool pool)
+    {
+        if (boards.size() != racks.size())
+            throw new IllegalArgumentException(boards.size() + " boards but "
+                                               + racks.size() + " racks");
+        final Batch batch = new Batch(boards.toArray(new char[0][][]),
+                                      racks.toArray(new char[0][]));
+        final BatchPart all = new BatchPart(this, batch, 0, batch.order.length);
+        if (pool == null)
+            all.compute();
+        else
+            pool.invoke(all);
+        return Arrays.asList(batch.plays);
+    }
+
+    // positions of a getScrabbleWords call, in the order they are searched
+    private static class Batch
+    {
+        final char[][][] boards;
+        final char[][] racks;
+        // board hash in the high half, position in the low half, sorted
+        final long[] order;
+        final ScrabbleWord[] plays;
+
+        Batch(char[][][] boards, char[][] racks)
+        {
+            this.boards = boards;
+            this.racks = racks;
+            order = new long[boards.length];
+            for (int i = 0; i < boards.length; i++)
+                order[i] = (long) hash(boards[i]) << 32 | i;
+            Arrays.sort(order);
+            plays = new ScrabbleWord[boards.length];
+        }
+
+        static int hash(char[][] board)
+        {
+            int h = 0x811c9dc5;
+            for (char[] row : board)
+                for (char c : row)
+                    h = (h ^ c) * 0x01000193;
+            return h;
+        }
+
+        boolean isSameBoard(int i, int j)
+        {
+            return order[i] >>> 32 == order[j] >>> 32;
+        }
+    }
+
+    private static class BatchPart extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+        static final int GRAIN = 64;
+        final ScrabblePlayer player;
+        final Batch batch;
+        final int from, to;
+
+        BatchPart(ScrabblePlayer player, Batch batch, int from, int to)
+        {
+            this.player = player;
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+        }
 
+        @Override
+        protected void compute()
+        {
+            if (to - from <= GRAIN) {
+                search();
+                return;
+            }
+            // keep a group of positions on the same board in one part: split
+            //    at the group boundary nearest the middle, on either side
+            final int mid = (from + to) >>> 1;
+            int after = mid;
+            while (after < to && batch.isSameBoard(after - 1, after))
+                after++;
+            int before = mid;
+            while (before > from && batch.isSameBoard(before - 1, before))
+                before--;
+            if (after == to && before == from) {
+                search();
+                return;
+            }
+            final int split = after == to ? before
+                : before == from || after - mid <= mid - before ? after : before;
+            invokeAll(new BatchPart(player, batch, from, split),
+                      new BatchPart(player, batch, split, to));
+        }
 
+        private void search()
+        {
+            final Lexicon.Search search = player.borrow();
+            try {
+                for (int i = from; i < to; i++) {
+                    final int position = (int) batch.order[i];
+                    search.top.reset(1);
+                    search.generator.generate(batch.boards[position], batch.racks[position],
+                                              search.top);
+                    final ScrabbleWord best = search.top.best();
+                    batch.plays[position] = best == null ? new ScrabbleWord()
+                        : asDealt(best, batch.boards[position], batch.racks[position]);
+                }
+            } finally {
+                player.lexicon.giveBack(search);
+            }
+        }
+    }
 
+    // all words that availableLetters can spell together with boardLetter
+    //    (' ' for none), e.g. to play through the single word on the board
+    public List<String> getRackWords(char[] availableLetters, char boardLetter)
+    {
+        final List<String> words = new ArrayList<>();
+        anagrams().query(availableLetters, boardLetter, words::add);
+        return words;
+    }
 
+    private AnagramIndex anagrams()
+    {
+        AnagramIndex index = anagrams;
+        if (index == null) {
+            synchronized (this) {
+                index = anagrams;
+                if (index == null)
+                    anagrams = index = AnagramIndex.build(lexicon.dictionary());
+            }
+        }
+        return index;
+    }
 
-        return  new ScrabbleWord("MYWORD", 0, 0, 'h');
+    // all words that fit pattern, '?' for any letter, e.g. "?A??E" for the
+    //    five-letter words with A second and E last, as when a play has to
+    //    pass through letters already on the board
+    public List<String> getPatternWords(String pattern)
+    {
+        final PatternIndex patterns = patterns();
+        final List<String> words = new ArrayList<>();
+        for (PrimitiveIterator.OfInt ids = patterns.query(pattern); ids.hasNext(); )
+            words.add(patterns.word(ids.nextInt()));
+        return words;
+    }
+
+    private PatternIndex patterns()
+    {
+        PatternIndex index = patterns;
+        if (index == null) {
+            synchronized (this) {
+                index = patterns;
+                if (index == null)
+                    patterns = index = PatternIndex.build(lexicon.dictionary());
+            }
+        }
+        return index;
     }
 
 }
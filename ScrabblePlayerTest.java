@@ -0,0 +1,36 @@
+import java.io.FileNotFoundException;
+import java.util.Random;
+
+/**
+ * Checks that a search whose deadline has already passed still finds a
+ * play whenever there is one.
+ *
+ *   java ScrabblePlayerTest [wordFile]
+ *
+ * Exits with an AssertionError naming the first board that gets none.
+ */
+public class ScrabblePlayerTest {
+    public static void main(final String[] args) throws FileNotFoundException {
+        final String wordFile = args.length > 0 ? args[0] : "words.txt";
+        final ScrabblePlayer player = new ScrabblePlayer(wordFile);
+        final WordList dictionary = WordList.load(wordFile);
+        final Random rand = new Random(16);
+        final char[][] board = new char[15][15];
+        final char[] rack = new char[7];
+        int boards = 0;
+        for (int game = 0; game < 200; game++) {
+            EvalScrabblePlayer.generateBoard(board, dictionary, rand);
+            EvalScrabblePlayer.generateAvailableLetters(rack, rand);
+            if (player.getScrabbleWord(board, rack).getScrabbleWord().isEmpty()) {
+                continue;  // nothing to find
+            }
+            boards++;
+            final ScrabbleWord play = player.getScrabbleWord(board, rack, System.nanoTime());
+            if (play.getScrabbleWord().isEmpty()) {
+                throw new AssertionError("no play with a passed deadline on board " + game
+                                         + ", rack " + new String(rack));
+            }
+        }
+        System.out.println("ok: a play on all " + boards + " boards with a passed deadline");
+    }
+}
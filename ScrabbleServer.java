@@ -0,0 +1,219 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/*
+
+  Usage: ScrabbleServer wordFile [port]
+
+  Serves ScrabblePlayer.getScrabbleWord over HTTP on the loopback
+  interface (port 8080 by default; 0 picks a free one), one thread per
+  request: a virtual thread where the JVM has them (Java 21 and later),
+  otherwise a pooled platform thread.
+
+  POST /move with a plain text body of 16 lines: the 15 rows of the
+  board, 15 characters each, upper case letters, '_' for a blank and
+  '.' for an empty square (a trailing space is too easily lost), then
+  the rack, letters of either case and '_' for a blank. Add
+  ?deadlineMs=N to the URL to bound the search, see
+  ScrabblePlayer.getScrabbleWord(board, letters, deadlineNanos).
+
+  The reply is one line, "word row column orientation", e.g.
+  "QUIZ 7 4 h"; a lone "-" if there is no play.
+
+ */
+public class ScrabbleServer {
+    static final int SIZE = 15;
+    static final String PATH = "/move";
+
+    private final ScrabblePlayer player;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public ScrabbleServer(final ScrabblePlayer player, final int port) throws IOException {
+        this.player = player;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        executor = threadPerRequest();
+        server.setExecutor(executor);
+        server.createContext(PATH, this::handle);
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: ScrabbleServer wordFile [port]");
+            System.exit(-1);
+        }
+        final ScrabblePlayer player = new ScrabblePlayer(args[0]);
+        final ScrabbleServer server =
+            new ScrabbleServer(player, args.length == 2 ? Integer.parseInt(args[1]) : 8080);
+        server.start();
+        System.out.println("Serving http://localhost:" + server.port() + PATH);
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor() where it exists; looked
+     * up by name so this still compiles and runs on Java 17.
+     */
+    static ExecutorService threadPerRequest() {
+        try {
+            final Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                reply(exchange, 405, "use POST");
+                return;
+            }
+            final String request;
+            try (InputStream in = exchange.getRequestBody()) {
+                request = new String(in.readAllBytes(), StandardCharsets.ISO_8859_1);
+            }
+            final char[][] board = new char[SIZE][];
+            final char[] rack;
+            final long deadlineMs;
+            try {
+                rack = decode(request, board);
+                deadlineMs = deadlineMs(exchange.getRequestURI());
+            } catch (IllegalArgumentException e) {
+                reply(exchange, 400, e.getMessage());
+                return;
+            }
+            // any long is a possible System.nanoTime(), so whether there is a
+            //    deadline is told by deadlineMs, not by some deadline value
+            final ScrabbleWord play = deadlineMs < 0
+                ? player.getScrabbleWord(board, rack)
+                : player.getScrabbleWord(board, rack, System.nanoTime() + deadlineMs * 1_000_000);
+            reply(exchange, 200, encode(play));
+        }
+    }
+
+    private static void reply(final HttpExchange exchange, final int status, final String body)
+        throws IOException {
+        final byte[] bytes = (body + "\n").getBytes(StandardCharsets.ISO_8859_1);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=ISO-8859-1");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /** The deadlineMs query parameter, or -1 if there is none. */
+    private static long deadlineMs(final URI uri) {
+        final String query = uri.getRawQuery();
+        if (query != null) {
+            for (final String parameter : query.split("&")) {
+                if (parameter.startsWith("deadlineMs=")) {
+                    final long deadlineMs;
+                    try {
+                        deadlineMs = Long.parseLong(parameter.substring("deadlineMs=".length()));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("bad deadlineMs: " + parameter);
+                    }
+                    if (deadlineMs < 0) {
+                        throw new IllegalArgumentException("bad deadlineMs: " + parameter);
+                    }
+                    return deadlineMs;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /** The request body for board and rack, see the usage above. */
+    static String encode(final char[][] board, final char[] rack) {
+        final StringBuilder sb = new StringBuilder((SIZE + 1) * (SIZE + 1));
+        for (final char[] row : board) {
+            for (final char c : row) {
+                sb.append(c == ' ' ? '.' : c);
+            }
+            sb.append('\n');
+        }
+        return sb.append(rack).append('\n').toString();
+    }
+
+    /**
+     * Reads a request body into board (SIZE rows) and returns the rack.
+     * Rows may hold only letters A-Z, '_', '.' and ' '; the rack may also
+     * hold a-z. A lower case letter on the board would be taken for a
+     * letter and echoed back as a blank, so it is refused instead.
+     * @throws IllegalArgumentException if the body is malformed
+     */
+    static char[] decode(final String request, final char[][] board) {
+        final String[] lines = request.split("\r?\n");
+        if (lines.length < SIZE + 1) {
+            throw new IllegalArgumentException("expected " + SIZE + " board rows and a rack");
+        }
+        for (int row = 0; row < SIZE; row++) {
+            if (lines[row].length() != SIZE) {
+                throw new IllegalArgumentException("row " + row + " is not " + SIZE + " squares");
+            }
+            checkTiles(lines[row], "row " + row, false);
+            board[row] = lines[row].replace('.', ' ').toCharArray();
+        }
+        checkTiles(lines[SIZE], "rack", true);
+        return lines[SIZE].trim().toCharArray();
+    }
+
+    private static void checkTiles(final String line, final String what, final boolean isRack) {
+        for (int i = 0; i < line.length(); i++) {
+            final char c = line.charAt(i);
+            if (!(c >= 'A' && c <= 'Z' || isRack && c >= 'a' && c <= 'z'
+                  || c == '_' || c == '.' || c == ' ')) {
+                throw new IllegalArgumentException(what + " has '" + c + "' at " + i);
+            }
+        }
+    }
+
+    /** The reply line for play. */
+    static String encode(final ScrabbleWord play) {
+        if (play.getScrabbleWord().isEmpty()) {
+            return "-";
+        }
+        return play.getScrabbleWord() + " " + play.getStartRow() + " " + play.getStartColumn()
+            + " " + (char) play.getOrientation();
+    }
+
+    /** The play in a reply line, or null for "-". */
+    static ScrabbleWord decode(final String reply) {
+        final String[] fields = reply.trim().split(" ");
+        if (fields.length != 4) {
+            return null;
+        }
+        return new ScrabbleWord(fields[0], Integer.parseInt(fields[1]), Integer.parseInt(fields[2]),
+                                fields[3].charAt(0));
+    }
+}
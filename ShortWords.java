@@ -0,0 +1,92 @@
+import java.nio.IntBuffer;
+
+/**
+ * The two- and three-letter words of a dictionary as bit tables, for the
+ * cross-checks of plays laid alongside a word, whose cross words are
+ * mostly that short.
+ *
+ * The tables are one run of INTS ints: first two[26], where two[a] has
+ * bit b set if the letters a b (0 = 'A') make a word, then before[26], its
+ * transpose, then three, a bitset of 26 * 26 * 26 bits with bit
+ * (a * 26 + b) * 26 + c set if a b c is a word. Which letters fit a hole
+ * in such a word is then a few loads instead of a walk of the graph. Being
+ * an IntBuffer, the run can also live in a mapped DictionaryImage.
+ */
+public final class ShortWords {
+    private static final int TWO = 0;
+    private static final int BEFORE = 26;
+    private static final int THREE = 2 * 26;
+    /** Length of the tables in ints. */
+    static final int INTS = THREE + (26 * 26 * 26 + 31 >>> 5);
+
+    private final IntBuffer table;
+
+    ShortWords(final IntBuffer table) {
+        this.table = table;
+    }
+
+    /** Reads the short words off the first three levels of dictionary. */
+    static ShortWords build(final Dawg dictionary) {
+        final int[] table = new int[INTS];
+        for (int e1 = dictionary.root(); e1 != Dawg.NO_EDGE && e1 != Dawg.LEAF;
+             e1 = dictionary.nextEdge(e1)) {
+            final int a = Dawg.code(dictionary.letter(e1));
+            for (int e2 = dictionary.child(e1); e2 != Dawg.NO_EDGE && e2 != Dawg.LEAF;
+                 e2 = dictionary.nextEdge(e2)) {
+                final int b = Dawg.code(dictionary.letter(e2));
+                if (dictionary.isWordEnd(e2)) {
+                    table[TWO + a] |= 1 << b;
+                    table[BEFORE + b] |= 1 << a;
+                }
+                for (int e3 = dictionary.child(e2); e3 != Dawg.NO_EDGE && e3 != Dawg.LEAF;
+                     e3 = dictionary.nextEdge(e3)) {
+                    if (dictionary.isWordEnd(e3)) {
+                        final int bit = (a * 26 + b) * 26 + Dawg.code(dictionary.letter(e3));
+                        table[THREE + (bit >>> 5)] |= 1 << bit;
+                    }
+                }
+            }
+        }
+        return new ShortWords(IntBuffer.wrap(table));
+    }
+
+    /** The tables, for DictionaryImage. */
+    IntBuffer table() {
+        return table.duplicate();
+    }
+
+    private boolean isThree(final int a, final int b, final int c) {
+        final int bit = (a * 26 + b) * 26 + c;
+        return (table.get(THREE + (bit >>> 5)) & 1 << bit) != 0;
+    }
+
+    /**
+     * Letters (bit 0 = 'A') that fit at hole in the two or three letters of
+     * pattern, whose other squares hold letters.
+     */
+    int fits(final char[] pattern, final int hole, final int length) {
+        if (length == 2) {
+            return hole == 0 ? table.get(BEFORE + Dawg.code(pattern[1]))
+                : table.get(TWO + Dawg.code(pattern[0]));
+        }
+        final int a = Dawg.code(pattern[0]);
+        final int b = Dawg.code(pattern[1]);
+        final int c = Dawg.code(pattern[2]);
+        if (hole == 2) {
+            // the 26 bits of a b ?, which may straddle two ints
+            final int bit = (a * 26 + b) * 26;
+            long bits = (table.get(THREE + (bit >>> 5)) & 0xffffffffL) >>> (bit & 31);
+            if ((bit & 31) > 32 - 26) {
+                bits |= (table.get(THREE + (bit >>> 5) + 1) & 0xffffffffL) << 32 - (bit & 31);
+            }
+            return (int) bits & MoveGenerator.ALL_LETTERS;
+        }
+        int fits = 0;
+        for (int x = 0; x < 26; x++) {
+            if (hole == 0 ? isThree(x, b, c) : isThree(a, x, c)) {
+                fits |= 1 << x;
+            }
+        }
+        return fits;
+    }
+}
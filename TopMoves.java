@@ -0,0 +1,177 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the k highest scoring plays reported by a MoveGenerator. Once k
+ * plays are known the k-th best score becomes the generator's threshold,
+ * so it stops exploring plays that cannot make the list.
+ *
+ * Plays are kept packed in slots of a few reused arrays rather than as
+ * objects: the letters as bytes, and the start square, orientation, length
+ * and blank mask in one int. A ScrabbleWord is only made for the plays
+ * asked for at the end, so one instance can serve any number of searches
+ * (see reset) without allocating.
+ */
+public class TopMoves implements MoveGenerator.Listener {
+    private static final int SIZE = MoveGenerator.SIZE;
+
+    private int k;
+    private int size = 0;
+    private int arrivals = 0;
+    private int[] heap;     // slots, worst play on top
+    // by slot: points in the high half, then the complement of the
+    // arrival number so that of two equal scores the first found ranks higher
+    private long[] keys;
+    // by slot: square | isHorizontal << 8 | length << 9 | blanks << 13
+    private int[] shapes;
+    private byte[] letters; // by slot, SIZE upper case letters each
+
+    public TopMoves(final int k) {
+        final int capacity = Math.max(1, Math.min(k, 16));
+        heap = new int[capacity];
+        keys = new long[capacity];
+        shapes = new int[capacity];
+        letters = new byte[capacity * SIZE];
+        reset(k);
+    }
+
+    /** Forgets every play, to search again keeping the k best. */
+    public void reset(final int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        this.k = k;
+        size = 0;
+        arrivals = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int threshold() {
+        return size < k ? Integer.MIN_VALUE : (int) (keys[heap[0]] >> 32);
+    }
+
+    @Override
+    public void onMove(final char[] word, final int start, final int length, final int row,
+                       final int col, final boolean isHorizontal, final int tiles,
+                       final int points) {
+        if (points <= threshold()) {
+            return;
+        }
+        final boolean isFull = size == k;
+        final int slot;
+        if (isFull) {
+            slot = heap[0];  // the worst play gives up its slot
+        } else {
+            if (size == heap.length) {
+                grow();
+            }
+            slot = size;
+            heap[size++] = slot;
+        }
+        int blanks = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = word[start + i];
+            if (Character.isLowerCase(c)) {
+                blanks |= 1 << i;
+            }
+            letters[slot * SIZE + i] = (byte) Character.toUpperCase(c);
+        }
+        keys[slot] = (long) points << 32 | (~arrivals++ & 0xffffffffL);
+        shapes[slot] = (row * SIZE + col) | (isHorizontal ? 1 << 8 : 0) | length << 9 | blanks << 13;
+        if (isFull) {
+            siftDown(0);
+        } else {
+            siftUp(size - 1);
+        }
+    }
+
+    private void grow() {
+        final int capacity = (int) Math.min(k, 2L * heap.length);
+        heap = Arrays.copyOf(heap, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        shapes = Arrays.copyOf(shapes, capacity);
+        letters = Arrays.copyOf(letters, capacity * SIZE);
+    }
+
+    private void siftUp(int i) {
+        final int slot = heap[i];
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (keys[heap[parent]] <= keys[slot]) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = slot;
+    }
+
+    private void siftDown(int i) {
+        final int slot = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                child++;
+            }
+            if (keys[slot] <= keys[heap[child]]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = slot;
+    }
+
+    /** The best play kept, or null if there is none. */
+    public ScrabbleWord best() {
+        if (size == 0) {
+            return null;
+        }
+        int best = heap[0];
+        for (int i = 1; i < size; i++) {
+            if (keys[heap[i]] > keys[best]) {
+                best = heap[i];
+            }
+        }
+        return toScrabbleWord(best);
+    }
+
+    /** The plays kept, best first, with blanks written as '_'; empties this. */
+    public List<ScrabbleWord> toScrabbleWords() {
+        // heapsort: the worst play left moves to the end each round
+        final int count = size;
+        while (size > 1) {
+            final int worst = heap[0];
+            heap[0] = heap[--size];
+            siftDown(0);
+            heap[size] = worst;
+        }
+        size = 0;
+        final List<ScrabbleWord> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            words.add(toScrabbleWord(heap[i]));
+        }
+        return words;
+    }
+
+    private ScrabbleWord toScrabbleWord(final int slot) {
+        final int shape = shapes[slot];
+        final int square = shape & 0xff;
+        final int length = shape >>> 9 & 0xf;
+        final int blanks = shape >>> 13;
+        final char[] played = new char[length];
+        for (int i = 0; i < length; i++) {
+            played[i] = (blanks & 1 << i) != 0 ? '_' : (char) letters[slot * SIZE + i];
+        }
+        return new ScrabbleWord(new String(played), square / SIZE, square % SIZE,
+                                (shape & 1 << 8) != 0 ? 'h' : 'v');
+    }
+}
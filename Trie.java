@@ -1,65 +1,104 @@
+import java.util.ArrayDeque;
+import java.util.Arrays;
 
 public class Trie {
-    private static class Entry implements Comparable<Entry> {
-        String element;
+    private static class Entry {
+        // the edge label is labels[start, start + length)
+        int start;
+        int length = 0;
         boolean isWordEnd = false;
-        MyList<Entry> children = new MyList<Entry>();
-        Entry(final String theElement) {
-            element = theElement;
-        }
-        @Override
-        public int compareTo(Entry other) {
-            return element.compareTo(other.element);
-        }
-        public void display() {
-            System.out.printf("%s:%s%n", element, children);
-        }
-        public String toString() {
-            return element;
-        }
+        // keyed by the first character of each child's label, null for a leaf
+        CharMap<Entry> children;
     }
     private final Entry root;
+    private char[] labels = new char[1 << 16];
+    private int labelCount = 0;
     Trie() {
-        root = new Entry("");
+        root = new Entry();
     }
-    public final void compress() {
-        compress(root);
+    private String label(final Entry e) {
+        return new String(labels, e.start, e.length);
     }
-    private final void compress(final Entry current) {
-        final MyList<Entry> kids = current.children;
-        if (kids.size() == 1) {
-            final Entry kid = kids.removeFirst();
-            current.element = current.element.concat(kid.element);
-            current.children = kid.children;
-            compress(current);
-        } else {
-            for (final Entry child : kids) {
-                compress(child);
+    /**
+     * Turns every chain of single-child nodes into one node, making this a
+     * radix tree. A node that ends a word is never merged into its parent,
+     * and the root keeps its empty label.
+     */
+    public final void compress() {
+        final ArrayDeque<Entry> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            final Entry current = pending.pop();
+            while (current != root && !current.isWordEnd
+                   && current.children != null && current.children.size() == 1) {
+                merge(current, current.children.valueAt(0));
+            }
+            if (current.children != null) {
+                for (final Entry child : current.children) {
+                    pending.push(child);
+                }
             }
         }
     }
-    public final void insert(final String word) {
-        insert(word, 0, root);
+    private void merge(final Entry parent, final Entry kid) {
+        if (parent.start + parent.length != kid.start) {
+            // a chain is normally laid down by one insert and so contiguous,
+            // but copy the labels rather than rely on it
+            final int start = labelCount;
+            append(labels, parent.start, parent.length);
+            append(labels, kid.start, kid.length);
+            parent.start = start;
+        }
+        parent.length += kid.length;
+        parent.isWordEnd = kid.isWordEnd;
+        parent.children = kid.children;
     }
-    private void insert(final String word, final int index, final Entry current) {
-        final MyList<Entry> kids = current.children;
-        final String element = String.valueOf(word.charAt(index));
-        final Entry next = kids.insert(new Entry(element));
-        if (index < word.length() - 1) {
-            insert(word, index + 1, next);
-        } else {
-            next.isWordEnd = true;
+    private void append(final char[] from, final int start, final int length) {
+        if (labelCount + length > labels.length) {
+            labels = Arrays.copyOf(labels, Math.max(labels.length * 2, labelCount + length));
+        }
+        System.arraycopy(from, start, labels, labelCount, length);
+        labelCount += length;
+    }
+    public final void insert(final String word) {
+        Entry current = root;
+        for (int index = 0; index < word.length(); index++) {
+            if (current.children == null) {
+                current.children = new CharMap<Entry>();
+            }
+            final char c = word.charAt(index);
+            final Entry next = current.children.getOrInsert(c, k -> new Entry());
+            if (next.length == 0) {
+                // just created, give it its one-letter label
+                if (labelCount == labels.length) {
+                    labels = Arrays.copyOf(labels, labels.length * 2);
+                }
+                next.start = labelCount;
+                next.length = 1;
+                labels[labelCount++] = c;
+            }
+            current = next;
+        }
+        if (current != root) {
+            current.isWordEnd = true;
         }
-
     }
     public void display() {
         display(root);
     }
-    public static void display(final Entry e) {
-        e.display();
+    private void display(final Entry e) {
+        final StringBuilder kids = new StringBuilder("(");
+        if (e.children != null) {
+            for (int i = 0; i < e.children.size(); i++) {
+                kids.append(i > 0 ? ", " : "").append(label(e.children.valueAt(i)));
+            }
+        }
+        System.out.printf("%s:%s%n", label(e), kids.append(')'));
         System.out.println("{");
-        for (Entry c : e.children) {
-            display(c);
+        if (e.children != null) {
+            for (final Entry c : e.children) {
+                display(c);
+            }
         }
         System.out.println("}");
     }
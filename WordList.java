@@ -0,0 +1,542 @@
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * The words of a word file, normalized once for everyone who reads it:
+ * folded to upper case, lines with anything but the letters A-Z (after
+ * trimming) dropped, duplicates removed.
+ *
+ * A word of up to PACKED_LENGTH letters is packed into one long, five bits
+ * per letter (1-26, 0 is padding) with the first letter in the highest
+ * bits, so the sorted long[] is also in alphabetical order and a lookup is
+ * a binary search with no String in sight. The few longer words are kept
+ * sorted in a side table of bytes.
+ *
+ * A large file is parsed in chunks, one per worker of the common pool,
+ * and the sorted chunks are merged; since the result is the sorted set
+ * of words, it does not depend on how the file was cut.
+ *
+ * A list from load(), unlike one from read(), also keeps the file itself
+ * with the start of every line, for line(i): the lines in file order,
+ * repeats and all, which is what the evaluator draws its starting words
+ * from.
+ */
+public final class WordList {
+    static final int PACKED_LENGTH = 12;
+    private static final int BITS = 5 * PACKED_LENGTH;
+    private static final int MIN_CHUNK = 1 << 16;  // bytes worth a task of their own
+    private static final long LOW_BITS = 0x0084210842108421L;  // bit 0 of every letter
+    private static final long HIGH_BITS = LOW_BITS << 4;        // bit 4 of every letter
+
+    private final long[] packed;      // sorted, distinct
+    private final byte[] longChars;   // words longer than PACKED_LENGTH, sorted
+    private final int[] longStarts;   // word i is longChars[longStarts[i]..longStarts[i + 1])
+    private final byte[] file;        // as read, or null
+    private final int[] lineStarts;   // line i starts at file[lineStarts[i]], one past the last
+
+    private WordList(final long[] packed, final byte[] longChars, final int[] longStarts) {
+        this(packed, longChars, longStarts, null, null);
+    }
+
+    private WordList(final long[] packed, final byte[] longChars, final int[] longStarts,
+                     final byte[] file, final int[] lineStarts) {
+        this.packed = packed;
+        this.longChars = longChars;
+        this.longStarts = longStarts;
+        this.file = file;
+        this.lineStarts = lineStarts;
+    }
+
+    /**
+     * Reads and normalizes wordFile, one word per line, and keeps the file
+     * for line(i).
+     */
+    public static WordList load(final String wordFile) throws FileNotFoundException {
+        final byte[] file = readFile(wordFile);
+        final WordList words = parse(file, ForkJoinPool.commonPool());
+        return new WordList(words.packed, words.longChars, words.longStarts, file, lineStarts(file));
+    }
+
+    /**
+     * Like load, but only the words are kept, which is all the word graphs
+     * are built from.
+     */
+    public static WordList read(final String wordFile) throws FileNotFoundException {
+        return parse(readFile(wordFile), ForkJoinPool.commonPool());
+    }
+
+    private static byte[] readFile(final String wordFile) throws FileNotFoundException {
+        try (FileInputStream in = new FileInputStream(wordFile)) {
+            return in.readAllBytes();
+        } catch (FileNotFoundException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Where each line of file starts, and one past the end of the last. */
+    private static int[] lineStarts(final byte[] file) {
+        int lines = 0;
+        for (int i = 0; i < file.length; i++) {
+            if (file[i] == '\n' || i == file.length - 1) {
+                lines++;
+            }
+        }
+        final int[] starts = new int[lines + 1];
+        int line = 0;
+        for (int i = 0; i < file.length; i++) {
+            if (file[i] == '\n') {
+                starts[++line] = i + 1;
+            }
+        }
+        starts[lines] = file.length + (file.length > 0 && file[file.length - 1] == '\n' ? 0 : 1);
+        return starts;
+    }
+
+    /** The words of file, cut at line ends into a chunk per worker of pool. */
+    static WordList parse(final byte[] file, final ForkJoinPool pool) {
+        final int chunks = Math.max(1, Math.min(pool.getParallelism(), file.length / MIN_CHUNK));
+        final List<ForkJoinTask<WordList>> tasks = new ArrayList<>(chunks);
+        int from = 0;
+        for (int i = 1; i <= chunks; i++) {
+            int to = Math.max(from, (int) ((long) file.length * i / chunks));
+            while (to > 0 && to < file.length && file[to - 1] != '\n') {
+                to++;
+            }
+            final int start = from;
+            final int end = to;
+            tasks.add(pool.submit(() -> parse(file, start, end)));
+            from = to;
+        }
+        final List<WordList> parts = new ArrayList<>(chunks);
+        for (final ForkJoinTask<WordList> task : tasks) {
+            parts.add(task.join());
+        }
+        // merge neighbours pairwise until one list is left
+        while (parts.size() > 1) {
+            final List<WordList> merged = new ArrayList<>((parts.size() + 1) / 2);
+            for (int i = 0; i < parts.size(); i += 2) {
+                merged.add(i + 1 < parts.size() ? merge(parts.get(i), parts.get(i + 1)) : parts.get(i));
+            }
+            parts.clear();
+            parts.addAll(merged);
+        }
+        return parts.get(0);
+    }
+
+    /** The union of a and b. */
+    private static WordList merge(final WordList a, final WordList b) {
+        final long[] packed = new long[a.packed.length + b.packed.length];
+        int count = 0;
+        for (int i = 0, j = 0; i < a.packed.length || j < b.packed.length; ) {
+            final long next = j == b.packed.length
+                || i < a.packed.length && a.packed[i] <= b.packed[j] ? a.packed[i++] : b.packed[j++];
+            if (count == 0 || packed[count - 1] != next) {
+                packed[count++] = next;
+            }
+        }
+        final byte[] chars = new byte[a.longChars.length + b.longChars.length];
+        final int[] starts = new int[a.longStarts.length + b.longStarts.length - 1];
+        int longCount = 0;
+        final int aCount = a.longStarts.length - 1;
+        final int bCount = b.longStarts.length - 1;
+        for (int i = 0, j = 0; i < aCount || j < bCount; ) {
+            final WordList from;
+            final int k;
+            if (j == bCount || i < aCount
+                && Arrays.compare(a.longChars, a.longStarts[i], a.longStarts[i + 1],
+                                  b.longChars, b.longStarts[j], b.longStarts[j + 1]) <= 0) {
+                from = a;
+                k = i++;
+            } else {
+                from = b;
+                k = j++;
+            }
+            final int start = from.longStarts[k];
+            final int end = from.longStarts[k + 1];
+            if (longCount > 0 && Arrays.equals(from.longChars, start, end,
+                                               chars, starts[longCount - 1], starts[longCount])) {
+                continue;
+            }
+            System.arraycopy(from.longChars, start, chars, starts[longCount], end - start);
+            starts[longCount + 1] = starts[longCount] + end - start;
+            longCount++;
+        }
+        return new WordList(Arrays.copyOf(packed, count), Arrays.copyOf(chars, starts[longCount]),
+                            Arrays.copyOf(starts, longCount + 1));
+    }
+
+    /** The words on the lines of file[from..to). */
+    static WordList parse(final byte[] file, final int from, final int to) {
+        long[] packed = new long[1 << 16];
+        int packedCount = 0;
+        byte[] longChars = new byte[1 << 16];
+        int longCharCount = 0;
+        int[] longStarts = new int[1 << 12];
+        int longCount = 0;
+        for (int lineStart = from; lineStart < to; ) {
+            int lineEnd = lineStart;
+            while (lineEnd < to && file[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int start = lineStart;
+            int end = lineEnd;
+            while (start < end && file[start] <= ' ') {
+                start++;
+            }
+            while (end > start && file[end - 1] <= ' ') {
+                end--;
+            }
+            lineStart = lineEnd + 1;
+            if (start == end || !isLetters(file, start, end)) {
+                continue;
+            }
+            if (end - start <= PACKED_LENGTH) {
+                if (packedCount == packed.length) {
+                    packed = Arrays.copyOf(packed, packedCount * 2);
+                }
+                packed[packedCount++] = pack(file, start, end);
+            } else {
+                if (longCount + 2 > longStarts.length) {
+                    longStarts = Arrays.copyOf(longStarts, longStarts.length * 2);
+                }
+                if (longCharCount + end - start > longChars.length) {
+                    longChars = Arrays.copyOf(longChars, longChars.length * 2 + end - start);
+                }
+                for (int i = start; i < end; i++) {
+                    longChars[longCharCount++] = (byte) (file[i] & ~0x20);  // upper case
+                }
+                longStarts[++longCount] = longCharCount;
+            }
+        }
+        Arrays.sort(packed, 0, packedCount);
+        int distinct = 0;
+        for (int i = 0; i < packedCount; i++) {
+            if (distinct == 0 || packed[i] != packed[distinct - 1]) {
+                packed[distinct++] = packed[i];
+            }
+        }
+        return sortLong(Arrays.copyOf(packed, distinct), longChars, longStarts, longCount);
+    }
+
+    private static boolean isLetters(final byte[] s, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            final int c = s[i] & ~0x20;
+            if (c < 'A' || c > 'Z') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long pack(final byte[] s, final int from, final int to) {
+        long word = 0;
+        for (int i = from; i < to; i++) {
+            word |= (long) ((s[i] & ~0x20) - 'A' + 1) << (BITS - 5 * (i - from + 1));
+        }
+        return word;
+    }
+
+    /** Sorts the long words and drops the repeats. */
+    private static WordList sortLong(final long[] packed, final byte[] chars, final int[] starts,
+                                     final int count) {
+        final Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Arrays.compare(chars, starts[a], starts[a + 1],
+                                                    chars, starts[b], starts[b + 1]));
+        final byte[] sortedChars = new byte[count == 0 ? 0 : starts[count]];
+        final int[] sortedStarts = new int[count + 1];
+        int distinct = 0;
+        int charCount = 0;
+        for (int k = 0; k < count; k++) {
+            final int i = order[k];
+            if (distinct > 0 && Arrays.equals(chars, starts[i], starts[i + 1], sortedChars,
+                                              sortedStarts[distinct - 1], charCount)) {
+                continue;
+            }
+            System.arraycopy(chars, starts[i], sortedChars, charCount, starts[i + 1] - starts[i]);
+            charCount += starts[i + 1] - starts[i];
+            sortedStarts[++distinct] = charCount;
+        }
+        return new WordList(packed, Arrays.copyOf(sortedChars, charCount),
+                            Arrays.copyOf(sortedStarts, distinct + 1));
+    }
+
+    /** Number of distinct words. */
+    public int size() {
+        return packed.length + longStarts.length - 1;
+    }
+
+    /**
+     * The i-th word: the packed words come first in alphabetical order,
+     * then the longer ones, also in order.
+     */
+    public String get(final int i) {
+        if (i < packed.length) {
+            return unpack(packed[i]);
+        }
+        final int j = i - packed.length;
+        return new String(longChars, longStarts[j], longStarts[j + 1] - longStarts[j],
+                          StandardCharsets.ISO_8859_1);
+    }
+
+    /** Number of lines of the file; 0 unless this list came from load(). */
+    public int lineCount() {
+        return lineStarts == null ? 0 : lineStarts.length - 1;
+    }
+
+    /**
+     * Line i of the file, upper-cased but otherwise as read, so repeats and
+     * lines that are no word are all there.
+     */
+    public String line(final int i) {
+        int end = lineStarts[i + 1] - 1;  // the '\n', or the end of the file
+        if (end > lineStarts[i] && file[end - 1] == '\r') {
+            end--;
+        }
+        return new String(file, lineStarts[i], end - lineStarts[i], StandardCharsets.ISO_8859_1)
+            .toUpperCase();
+    }
+
+    static String unpack(final long word) {
+        final StringBuilder sb = new StringBuilder(PACKED_LENGTH);
+        unpack(word, sb);
+        return sb.toString();
+    }
+
+    private static void unpack(final long word, final StringBuilder sb) {
+        sb.setLength(0);
+        for (int shift = BITS - 5; shift >= 0; shift -= 5) {
+            final int code = (int) (word >>> shift) & 0x1f;
+            if (code == 0) {
+                break;
+            }
+            sb.append((char) ('A' + code - 1));
+        }
+    }
+
+    /**
+     * Hands every word to action in alphabetical order, for building the
+     * word graphs. The word is a buffer that is reused once action returns.
+     */
+    public void forEach(final Consumer<? super CharSequence> action) {
+        for (char first = 'A'; first <= 'Z'; first++) {
+            forEach(first, action);
+        }
+    }
+
+    /** Like forEach(action), but only the words starting with first. */
+    public void forEach(final char first, final Consumer<? super CharSequence> action) {
+        final long letter = (long) (first - 'A' + 1) << (BITS - 5);
+        final int to = firstAtLeast(letter + (1L << (BITS - 5)));
+        final int longCount = longStarts.length - 1;
+        int j = -findLong(String.valueOf(first)) - 1;  // no long word is one letter
+        final StringBuilder shortWord = new StringBuilder(PACKED_LENGTH);
+        final StringBuilder longWord = new StringBuilder();
+        for (int i = firstAtLeast(letter); i < to; i++) {
+            unpack(packed[i], shortWord);
+            for (; j < longCount && longChars[longStarts[j]] == first
+                   && compareLong(j, shortWord) < 0; j++) {
+                action.accept(longWord(j, longWord));
+            }
+            action.accept(shortWord);
+        }
+        for (; j < longCount && longChars[longStarts[j]] == first; j++) {
+            action.accept(longWord(j, longWord));
+        }
+    }
+
+    /**
+     * Hands every word that has letter in it to action, the packed words
+     * first; the order is otherwise alphabetical. The word is a buffer that
+     * is reused once action returns.
+     */
+    public void forEachContaining(final char letter, final Consumer<? super CharSequence> action) {
+        // xor zeroes the five bits of every copy of letter, and the usual
+        // carry trick finds a zero field without unpacking the word
+        final long copies = (letter - 'A' + 1) * LOW_BITS;
+        final StringBuilder word = new StringBuilder(PACKED_LENGTH);
+        for (final long w : packed) {
+            final long x = w ^ copies;
+            if (((x - LOW_BITS) & ~x & HIGH_BITS) != 0) {
+                unpack(w, word);
+                action.accept(word);
+            }
+        }
+        for (int j = 0; j < longStarts.length - 1; j++) {
+            for (int i = longStarts[j]; i < longStarts[j + 1]; i++) {
+                if (longChars[i] == letter) {
+                    action.accept(longWord(j, word));
+                    break;
+                }
+            }
+        }
+    }
+
+    /** Index of the first packed word not below key. */
+    private int firstAtLeast(final long key) {
+        final int i = Arrays.binarySearch(packed, key);
+        return i < 0 ? -i - 1 : i;
+    }
+
+    private StringBuilder longWord(final int j, final StringBuilder sb) {
+        sb.setLength(0);
+        for (int i = longStarts[j]; i < longStarts[j + 1]; i++) {
+            sb.append((char) longChars[i]);
+        }
+        return sb;
+    }
+
+    /** Compares long word j with s, which holds upper case letters. */
+    private int compareLong(final int j, final CharSequence s) {
+        final int start = longStarts[j];
+        final int length = longStarts[j + 1] - start;
+        for (int i = 0; i < Math.min(length, s.length()); i++) {
+            final int diff = longChars[start + i] - s.charAt(i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return length - s.length();
+    }
+
+    /** True if word, in either case, is in the list. */
+    public boolean contains(final CharSequence word) {
+        final int length = word.length();
+        if (length == 0) {
+            return false;
+        }
+        if (length <= PACKED_LENGTH) {
+            long key = 0;
+            for (int i = 0; i < length; i++) {
+                final int code = code(word.charAt(i));
+                if (code < 0) {
+                    return false;
+                }
+                key |= (long) (code + 1) << (BITS - 5 * (i + 1));
+            }
+            return Arrays.binarySearch(packed, key) >= 0;
+        }
+        final char[] upper = new char[length];
+        for (int i = 0; i < length; i++) {
+            final int code = code(word.charAt(i));
+            if (code < 0) {
+                return false;
+            }
+            upper[i] = (char) ('A' + code);
+        }
+        return findLong(CharBuffer.wrap(upper)) >= 0;
+    }
+
+    /** Index of s (upper case) among the long words, or -(insertion point) - 1. */
+    private int findLong(final CharSequence s) {
+        int low = 0;
+        int high = longStarts.length - 2;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int cmp = compareLong(mid, s);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -low - 1;
+    }
+
+    /** 0-25 for a letter of either case, -1 for anything else. */
+    private static int code(final char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
+        }
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        return -1;
+    }
+
+    /** Like contains, but each '_' in pattern stands for any letter. */
+    public boolean matches(final CharSequence pattern) {
+        final char[] word = new char[pattern.length()];
+        for (int i = 0; i < word.length; i++) {
+            final char c = pattern.charAt(i);
+            if (c == '_') {
+                word[i] = c;
+            } else {
+                final int code = code(c);
+                if (code < 0) {
+                    return false;
+                }
+                word[i] = (char) ('A' + code);
+            }
+        }
+        return matches(word, 0);
+    }
+
+    /** Tries every letter for the first '_' at or after from. */
+    private boolean matches(final char[] word, final int from) {
+        int blank = from;
+        while (blank < word.length && word[blank] != '_') {
+            blank++;
+        }
+        if (blank == word.length) {
+            return contains(CharBuffer.wrap(word));
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            word[blank] = c;
+            if (hasPrefix(word, blank + 1) && matches(word, blank + 1)) {
+                word[blank] = '_';
+                return true;
+            }
+        }
+        word[blank] = '_';
+        return false;
+    }
+
+    /** True if some word of word.length letters could start with word[0..length). */
+    private boolean hasPrefix(final char[] word, final int length) {
+        if (word.length > PACKED_LENGTH) {
+            final int i = findLong(CharBuffer.wrap(word, 0, length));
+            final int next = i < 0 ? -i - 1 : i;
+            return next < longStarts.length - 1 && startsWith(next, word, length);
+        }
+        long prefix = 0;
+        for (int i = 0; i < length; i++) {
+            prefix |= (long) (word[i] - 'A' + 1) << (BITS - 5 * (i + 1));
+        }
+        final long last = prefix | ((1L << (BITS - 5 * length)) - 1);
+        int i = Arrays.binarySearch(packed, prefix);
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return i < packed.length && packed[i] <= last;
+    }
+
+    private boolean startsWith(final int j, final char[] prefix, final int length) {
+        final int start = longStarts[j];
+        if (longStarts[j + 1] - start < length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (longChars[start + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,84 @@
+import java.util.Random;
+
+import scrabble.bench.Target;
+
+/** The default package side of scrabble.bench.Target. */
+public class BenchTarget implements Target {
+    private WordList dictionary;
+    private String[] words;
+    private ScrabblePlayer player;
+    private char[][][] boards;
+    private char[][] racks;
+
+    @Override
+    public void setUp(final String wordFile, final long seed, final int boardCount,
+                      final boolean withPlayer) throws Exception {
+        dictionary = WordList.load(wordFile);
+        words = new String[dictionary.lineCount()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = dictionary.line(i);
+        }
+        if (withPlayer) {
+            player = new ScrabblePlayer(wordFile);
+        }
+        final Random rand = new Random(seed);
+        boards = new char[boardCount][15][15];
+        racks = new char[boardCount][7];
+        for (int i = 0; i < boardCount; i++) {
+            EvalScrabblePlayer.generateBoard(boards[i], dictionary, rand);
+            EvalScrabblePlayer.generateAvailableLetters(racks[i], rand);
+        }
+    }
+
+    @Override
+    public String[] words() {
+        return words;
+    }
+
+    @Override
+    public Object trieInsert() {
+        final Trie trie = new Trie();
+        for (final String word : words) {
+            if (!word.isEmpty()) {
+                trie.insert(word);
+            }
+        }
+        return trie;
+    }
+
+    @Override
+    public Object trieInsertCompress() {
+        final Trie trie = (Trie) trieInsert();
+        trie.compress();
+        return trie;
+    }
+
+    @Override
+    public Object myListInsert(final int from, final int count) {
+        final MyList<String> list = new MyList<>();
+        for (int i = 0; i < count; i++) {
+            list.insert(words[(from + i) % words.length]);
+        }
+        return list;
+    }
+
+    @Override
+    public boolean contains(final String word) {
+        return dictionary.contains(word);
+    }
+
+    @Override
+    public boolean matches(final String pattern) {
+        return dictionary.matches(pattern);
+    }
+
+    @Override
+    public String play(final int board) {
+        // the player may write to neither, but hand it copies to be safe
+        final char[][] copy = new char[15][];
+        for (int row = 0; row < 15; row++) {
+            copy[row] = boards[board][row].clone();
+        }
+        return player.getScrabbleWord(copy, racks[board].clone()).getScrabbleWord();
+    }
+}
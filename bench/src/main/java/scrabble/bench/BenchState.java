@@ -0,0 +1,17 @@
+package scrabble.bench;
+
+/** Shared setup: the word file and seed the benchmarks read. */
+final class BenchState {
+    /** Override with -Dbench.words=path, relative to the bench directory by default. */
+    static final String WORD_FILE = System.getProperty("bench.words", "../words.txt");
+    static final long SEED = Long.getLong("bench.seed", 12345L);
+
+    private BenchState() {
+    }
+
+    static Target target(final int boardCount, final boolean withPlayer) throws Exception {
+        final Target target = Target.load();
+        target.setUp(WORD_FILE, SEED, boardCount, withPlayer);
+        return target;
+    }
+}
@@ -0,0 +1,40 @@
+package scrabble.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Building the Trie from the whole word file, with and without compress(). */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class DictionaryBench {
+    private Target target;
+
+    @Setup
+    public void setUp() throws Exception {
+        target = BenchState.target(0, false);
+    }
+
+    @Benchmark
+    public Object trieInsert() {
+        return target.trieInsert();
+    }
+
+    @Benchmark
+    public Object trieInsertCompress() {
+        return target.trieInsertCompress();
+    }
+}
@@ -0,0 +1,79 @@
+package scrabble.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Dictionary lookups: words of the file (hits), the same words with one
+ * letter changed so they are not words (misses), and the same words with
+ * one or two letters replaced by '_' (blanks).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LookupBench {
+    private static final int QUERIES = 1 << 12;
+
+    private Target target;
+    private final String[] hits = new String[QUERIES];
+    private final String[] misses = new String[QUERIES];
+    private final String[] blanks = new String[QUERIES];
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        target = BenchState.target(0, false);
+        final String[] words = target.words();
+        final Random rand = new Random(BenchState.SEED);
+        for (int i = 0; i < QUERIES; i++) {
+            String word;
+            do {
+                word = words[rand.nextInt(words.length)];
+            } while (word.length() < 2);
+            hits[i] = word;
+            final char[] miss = word.toCharArray();
+            do {
+                miss[rand.nextInt(miss.length)] = (char) ('A' + rand.nextInt(26));
+            } while (target.contains(new String(miss)));
+            misses[i] = new String(miss);
+            final char[] blank = word.toCharArray();
+            for (int k = 1 + rand.nextInt(2); k > 0; k--) {
+                blank[rand.nextInt(blank.length)] = '_';
+            }
+            blanks[i] = new String(blank);
+        }
+    }
+
+    private int nextQuery() {
+        return next = (next + 1) & (QUERIES - 1);
+    }
+
+    @Benchmark
+    public boolean hit() {
+        return target.contains(hits[nextQuery()]);
+    }
+
+    @Benchmark
+    public boolean miss() {
+        return target.contains(misses[nextQuery()]);
+    }
+
+    @Benchmark
+    public boolean blank() {
+        return target.matches(blanks[nextQuery()]);
+    }
+}
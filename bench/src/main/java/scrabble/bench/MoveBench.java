@@ -0,0 +1,42 @@
+package scrabble.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * getScrabbleWord over a fixed corpus of boards generated from
+ * bench.seed the same way EvalScrabblePlayer generates them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class MoveBench {
+    private static final int BOARDS = 64;
+
+    private Target target;
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        target = BenchState.target(BOARDS, true);
+    }
+
+    @Benchmark
+    public String getScrabbleWord() {
+        next = (next + 1) % BOARDS;
+        return target.play(next);
+    }
+}
@@ -0,0 +1,44 @@
+package scrabble.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sorted inserts into a fresh MyList. A trie node has at most 26
+ * children, the larger sizes show the linear scan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MyListBench {
+    @Param({"26", "256"})
+    public int count;
+
+    private Target target;
+    private int from;
+
+    @Setup
+    public void setUp() throws Exception {
+        target = BenchState.target(0, false);
+    }
+
+    @Benchmark
+    public Object insert() {
+        from = (from + count) % target.words().length;
+        return target.myListInsert(from, count);
+    }
+}
@@ -0,0 +1,39 @@
+package scrabble.bench;
+
+/**
+ * What the benchmarks measure. The player's classes live in the default
+ * package, which code in a named package cannot import, so BenchTarget
+ * (default package) implements this and is loaded by name.
+ */
+public interface Target {
+    /**
+     * Reads wordFile and generates boardCount boards with their racks the
+     * way EvalScrabblePlayer does for seed. Builds the player only if
+     * withPlayer is set, since that takes a few seconds.
+     */
+    void setUp(String wordFile, long seed, int boardCount, boolean withPlayer) throws Exception;
+
+    /** Words of the file, in file order. */
+    String[] words();
+
+    /** Inserts every word into a new Trie and returns it. */
+    Object trieInsert();
+
+    /** Inserts every word into a new Trie, compresses it and returns it. */
+    Object trieInsertCompress();
+
+    /** Inserts count words, starting at from, into a new MyList and returns it. */
+    Object myListInsert(int from, int count);
+
+    boolean contains(String word);
+
+    /** Lookup where each '_' stands for any letter. */
+    boolean matches(String pattern);
+
+    /** The player's move on board i of the corpus, as its word. */
+    String play(int board);
+
+    static Target load() throws ReflectiveOperationException {
+        return (Target) Class.forName("BenchTarget").getDeclaredConstructor().newInstance();
+    }
+}